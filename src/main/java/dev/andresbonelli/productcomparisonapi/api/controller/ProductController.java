@@ -1,13 +1,27 @@
 package dev.andresbonelli.productcomparisonapi.api.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import dev.andresbonelli.productcomparisonapi.api.dto.AttributeFilter;
+import dev.andresbonelli.productcomparisonapi.api.dto.ComparisonMatrix;
+import dev.andresbonelli.productcomparisonapi.api.dto.CursorPage;
 import dev.andresbonelli.productcomparisonapi.api.dto.ErrorResponse;
+import dev.andresbonelli.productcomparisonapi.api.dto.ExportFormat;
+import dev.andresbonelli.productcomparisonapi.api.dto.ImportReport;
 import dev.andresbonelli.productcomparisonapi.api.dto.PagedProducts;
+import dev.andresbonelli.productcomparisonapi.api.dto.PartialProducts;
 import dev.andresbonelli.productcomparisonapi.api.dto.ProductDTO;
+import dev.andresbonelli.productcomparisonapi.api.dto.ProductFields;
+import dev.andresbonelli.productcomparisonapi.api.dto.ProductPatch;
 import dev.andresbonelli.productcomparisonapi.api.dto.ProductSearchCriteria;
+import dev.andresbonelli.productcomparisonapi.api.dto.TotalCount;
+import dev.andresbonelli.productcomparisonapi.service.ProductComparisonService;
+import dev.andresbonelli.productcomparisonapi.service.ProductExportService;
+import dev.andresbonelli.productcomparisonapi.service.ProductImportService;
 import dev.andresbonelli.productcomparisonapi.service.ProductService;
+import dev.andresbonelli.productcomparisonapi.service.VersionedProduct;
+import dev.andresbonelli.productcomparisonapi.service.catalog.CatalogVersion;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
-import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -15,16 +29,25 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ETag;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 
 /**
  * REST Controller for handling product-related operations.
  * Provides endpoints for retrieving, creating, and searching products.
+ * Read endpoints answer If-None-Match with 304 Not Modified before reading any product: single products
+ * are validated by their version (strong ETag), lists and searches by the catalog version (weak ETag).
  */
 @RestController
 @RequestMapping("/api/products")
@@ -33,6 +56,10 @@ import java.util.List;
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductComparisonService productComparisonService;
+    private final ProductExportService productExportService;
+    private final ProductImportService productImportService;
+    private final CatalogVersion catalogVersion;
 
     @GetMapping("/{id}")
     @Operation(
@@ -48,6 +75,10 @@ public class ProductController {
                             schema = @Schema(implementation = ProductDTO.class)
                     )
             ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "Product unchanged since the version in If-None-Match"
+            ),
             @ApiResponse(
                     responseCode = "404",
                     description = "Product not found/ non existent",
@@ -59,15 +90,25 @@ public class ProductController {
     })
     public ResponseEntity<ProductDTO> getProductById(
             @Parameter(description = "Product ID", example = "1")
-            @PathVariable Long id) {
-        ProductDTO product = productService.getProductById(id);
-        return ResponseEntity.ok(product);
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (null != ifNoneMatch) {
+            String current = productETag(productService.getProductVersion(id));
+            if (matches(ifNoneMatch, current)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(current).build();
+            }
+        }
+        // The cached product carries the version it was read at, so the ETag always describes this body
+        VersionedProduct product = productService.getProductById(id);
+        return ResponseEntity.ok().eTag(productETag(product.version())).body(product.product());
     }
 
     @GetMapping
     @Operation(
             summary = "Get all products",
-            description = "Returns the complete list of products, paginated"
+            description = "Returns the complete list of products, paginated. " +
+                    "Pass cursor (empty for the first page) to page with continuation tokens instead of " +
+                    "page numbers; each response carries the nextCursor for the following page."
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -75,7 +116,19 @@ public class ProductController {
                     description = "Paged product list",
                     content = @Content(
                             mediaType = "application/json",
-                            schema = @Schema(implementation = PagedProducts.class)
+                            schema = @Schema(oneOf = {PagedProducts.class, CursorPage.class})
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "Catalog unchanged since the ETag in If-None-Match"
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid cursor or fields",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class)
                     )
             ),
             @ApiResponse(
@@ -87,18 +140,36 @@ public class ProductController {
                     )
             )
     })
-    public ResponseEntity<PagedProducts<ProductDTO>> getAll(
+    public ResponseEntity<?> getAll(
             @RequestParam(defaultValue = "1") int page,
-            @RequestParam(defaultValue = "10") int size
+            @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "Continuation token from the previous page; empty for the first page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Properties to return: summary (id, name, imageUrl, price, rating) or a " +
+                    "comma-separated list such as name,price. The id is always included; default is all",
+                    example = "summary")
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
     ) {
-        var result = productService.getAllProducts(page, size);
-        return ResponseEntity.ok(result);
+        ProductFields selected = ProductFields.fromParameter(fields);
+        String etag = catalogETag();
+        if (matches(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
+        if (null != cursor) {
+            return ResponseEntity.ok().eTag(etag).body(productService.getProductsAfter(cursor, size, selected));
+        }
+        var result = productService.getAllProducts(page, size, selected);
+        return ResponseEntity.ok().eTag(etag).body(result);
     }
 
     @GetMapping("/advancedSearch")
     @Operation(
             summary = "Advanced product search operation",
-            description = "Returns a list of products filtered by price/rating, paginated, and sorted"
+            description = "Returns a list of products filtered by price/rating and specification attributes, " +
+                    "paginated, and sorted. Pass cursor (empty for the first page) to page with continuation " +
+                    "tokens instead of page numbers; a token only continues the search it was issued for. " +
+                    "Totals are estimated unless count=exact is requested."
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -106,7 +177,19 @@ public class ProductController {
                     description = "Paged product list",
                     content = @Content(
                             mediaType = "application/json",
-                            schema = @Schema(implementation = PagedProducts.class)
+                            schema = @Schema(oneOf = {PagedProducts.class, CursorPage.class})
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "Catalog unchanged since the ETag in If-None-Match"
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid attribute filter, cursor or fields",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class)
                     )
             ),
             @ApiResponse(
@@ -118,7 +201,7 @@ public class ProductController {
                     )
             )
     })
-    public ResponseEntity<PagedProducts<ProductDTO>> getAllAdvanced(
+    public ResponseEntity<?> getAllAdvanced(
             @RequestParam(defaultValue = "1") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "id") String sortBy,
@@ -126,20 +209,91 @@ public class ProductController {
             @RequestParam(required = false) String name,
             @RequestParam(required = false) BigDecimal minPrice,
             @RequestParam(required = false) BigDecimal maxPrice,
-            @RequestParam(required = false) Double minRating
+            @RequestParam(required = false) Double minRating,
+            @Parameter(description = "Continuation token from the previous page; empty for the first page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page totals: exact (count query), estimate (cached, may lag recent " +
+                    "changes) or none (only isLast)", example = "estimate")
+            @RequestParam(defaultValue = "estimate") String count,
+            @Parameter(description = "Properties to return: summary (id, name, imageUrl, price, rating) or a " +
+                    "comma-separated list such as name,price. The id is always included; default is all",
+                    example = "summary")
+            @RequestParam(required = false) String fields,
+            @Parameter(description = "Attribute filters such as attr.RAM>=16GB or attr.Storage>=1TB. " +
+                    "Operators: =, >, >=, <, <= (URL-encode > and <, e.g. attr.RAM%3E=16GB)")
+            @RequestParam Map<String, String> params,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
     ) {
-        var result = productService.advancedSearch(
-                page, size,
-                new ProductSearchCriteria(sortBy,sortDir, name, minPrice, maxPrice, minRating)
-        );
-        return ResponseEntity.ok(result);
+        List<AttributeFilter> attributes = params.entrySet().stream()
+                .filter(param -> param.getKey().startsWith(AttributeFilter.PARAMETER_PREFIX))
+                .map(param -> AttributeFilter.fromParameter(param.getKey(), param.getValue()))
+                .toList();
+        var criteria = new ProductSearchCriteria(sortBy,sortDir, name, minPrice, maxPrice, minRating, attributes);
+        ProductFields selected = ProductFields.fromParameter(fields);
+        TotalCount totalCount = TotalCount.fromParameter(count);
+        String etag = catalogETag();
+        if (matches(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
+        if (null != cursor) {
+            return ResponseEntity.ok().eTag(etag)
+                    .body(productService.advancedSearchAfter(cursor, size, criteria, selected));
+        }
+        var result = productService.advancedSearch(page, size, criteria, totalCount, selected);
+        return ResponseEntity.ok().eTag(etag).body(result);
+    }
+
+    @GetMapping("/search")
+    @Operation(
+            summary = "Full-text product search",
+            description = "Searches product descriptions and specifications, best matches first (BM25 ranking). " +
+                    "Any of the query words may match. Total elements are exact up to 1000 matches."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Paged product list, ranked by relevance",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = PagedProducts.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "Catalog unchanged since the ETag in If-None-Match"
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Empty query or page beyond the searchable results",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )
+            )
+    })
+    public ResponseEntity<PagedProducts<ProductDTO>> search(
+            @Parameter(description = "Words to search for", example = "OLED 120Hz")
+            @RequestParam String q,
+            @RequestParam(defaultValue = "1") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        String etag = catalogETag();
+        if (matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        var result = productService.fullTextSearch(page, size, q);
+        return ResponseEntity.ok().eTag(etag).body(result);
     }
 
     @GetMapping("/compare")
     @Operation(
             summary = "Get multiple products",
             description = "Returns a list of 2 or more products to compare. " +
-                    "Independent IDs are passed as a list of parameters."
+                    "Independent IDs are passed as a list of parameters. With matrix=true returns the products " +
+                    "in ascending ID order with their specification attributes aligned by name, marking the " +
+                    "best and worst value of every numeric attribute. Repeated IDs are returned once. With " +
+                    "partial=true, missing IDs are listed next to the products found instead of failing."
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -147,23 +301,94 @@ public class ProductController {
                     description = "All requested products retrieved succesfully",
                     content = @Content(
                             mediaType = "application/json",
-                            array = @ArraySchema(schema = @Schema(implementation = ProductDTO.class))
+                            schema = @Schema(oneOf = {ProductDTO[].class, ComparisonMatrix.class, PartialProducts.class})
                     )
             ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "Catalog unchanged since the ETag in If-None-Match"
+            ),
             @ApiResponse(
                     responseCode = "400",
-                    description = "ID list invalid or empty",
+                    description = "ID list invalid, empty or too long, or invalid fields",
                     content = @Content(
                             mediaType = "application/json",
                             schema = @Schema(implementation = ErrorResponse.class)
                     )
             )
     })
-    public ResponseEntity<List<ProductDTO>> getSome(
+    public ResponseEntity<?> getSome(
             @Parameter(description = "The list of Product IDs to compare", example = "1,2,3")
-            @RequestParam List<Long> ids) {
-        var result = productService.getProductsByIds(ids);
-        return ResponseEntity.ok(result);
+            @RequestParam List<Long> ids,
+            @Parameter(description = "Return an aligned attribute matrix instead of a product list")
+            @RequestParam(defaultValue = "false") boolean matrix,
+            @Parameter(description = "Properties of each listed product: summary or a comma-separated list. " +
+                    "Not allowed with matrix=true, which compares specifications", example = "summary")
+            @RequestParam(required = false) String fields,
+            @Parameter(description = "Return the products found and the missing IDs instead of failing with 404. " +
+                    "Not allowed with matrix=true")
+            @RequestParam(defaultValue = "false") boolean partial,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (matrix) {
+            if (ids.isEmpty()) {
+                throw new IllegalArgumentException("ID list should not be empty");
+            }
+            if (null != fields) {
+                throw new IllegalArgumentException("fields cannot be combined with matrix=true");
+            }
+            if (partial) {
+                throw new IllegalArgumentException("partial cannot be combined with matrix=true");
+            }
+        }
+        ProductFields selected = ProductFields.fromParameter(fields);
+        String etag = catalogETag();
+        if (matches(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
+        if (matrix) {
+            return ResponseEntity.ok().eTag(etag)
+                    .body(productComparisonService.compare(ids.stream().distinct().sorted().toList()));
+        }
+        if (partial) {
+            return ResponseEntity.ok().eTag(etag).body(productService.findProductsByIds(ids, selected));
+        }
+        var result = productService.getProductsByIds(ids, selected);
+        return ResponseEntity.ok().eTag(etag).body(result);
+    }
+
+    @GetMapping("/export")
+    @Operation(
+            summary = "Export the whole catalog",
+            description = "Streams every product in ID order as NDJSON (one JSON object per line) or CSV with a " +
+                    "header row. Send Accept-Encoding: gzip to receive it compressed."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Catalog stream",
+                    content = {
+                            @Content(mediaType = "application/x-ndjson"),
+                            @Content(mediaType = "text/csv")
+                    }
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Unknown format",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )
+            )
+    })
+    public ResponseEntity<StreamingResponseBody> export(
+            @Parameter(description = "ndjson or csv", example = "ndjson")
+            @RequestParam(defaultValue = "ndjson") String format) {
+        ExportFormat exportFormat = ExportFormat.fromParameter(format);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.mediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"products." + exportFormat.extension() + "\"")
+                .body(out -> productExportService.export(exportFormat, out));
     }
 
     @PostMapping
@@ -195,10 +420,44 @@ public class ProductController {
         return ResponseEntity.status(HttpStatus.CREATED).body(result);
     }
 
+    @PostMapping("/import")
+    @Operation(
+            summary = "Bulk create products",
+            description = "Creates a product per row of an NDJSON or CSV body (the export formats; IDs are " +
+                    "ignored). Rows are validated as they stream in and stored in batches, each committed on " +
+                    "its own: invalid rows are skipped and listed in the report while the rest are stored."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Import finished, possibly with rejected rows",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ImportReport.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Unknown format, invalid CSV header or unterminated quoted field",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )
+            )
+    })
+    public ResponseEntity<ImportReport> importProducts(
+            @Parameter(description = "ndjson or csv", example = "ndjson")
+            @RequestParam(defaultValue = "ndjson") String format,
+            InputStream body) throws IOException {
+        var result = productImportService.importProducts(ExportFormat.fromParameter(format), body);
+        return ResponseEntity.ok(result);
+    }
+
     @PutMapping
     @Operation(
             summary = "Update existing product",
-            description = "Updates existing product information"
+            description = "Updates existing product information. Send the product's ETag in If-Match to update " +
+                    "only if nobody changed it since it was read; without If-Match any version is overwritten."
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -224,11 +483,60 @@ public class ProductController {
                             mediaType = "application/json",
                             schema = @Schema(implementation = ErrorResponse.class)
                     )
+            ),
+            @ApiResponse(
+                    responseCode = "409",
+                    description = "Product changed since the ETag in If-Match was read",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )
             )
     })
     public ResponseEntity<ProductDTO> updateProduct(
-            @Valid @RequestBody ProductDTO productDTO) {
-        var result = productService.updateProduct(productDTO.id(), productDTO);
+            @Valid @RequestBody ProductDTO productDTO,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        VersionedProduct result = productService.updateProduct(productDTO.id(), productDTO, expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(productETag(result.version())).body(result.product());
+    }
+
+    @PatchMapping(value = "/{id}", consumes = {ProductPatch.MEDIA_TYPE, MediaType.APPLICATION_JSON_VALUE})
+    @Operation(
+            summary = "Partially update a product",
+            description = "Applies a JSON merge patch: only the properties present change, e.g. {\"price\": 999.99}. " +
+                    "Properties cannot be removed (null)."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Product updated successfully",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ProductDTO.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid patch or product data",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Product not found",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )
+            )
+    })
+    public ResponseEntity<ProductDTO> patchProduct(
+            @Parameter(description = "Product ID", example = "1")
+            @PathVariable Long id,
+            @RequestBody JsonNode patch) {
+        var result = productService.patchProduct(id, ProductPatch.fromJson(patch, id));
         return ResponseEntity.ok(result);
     }
 
@@ -249,6 +557,50 @@ public class ProductController {
         productService.deleteProduct(id);
         return ResponseEntity.noContent().build();
     }
+
+    private static String productETag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * The product version an If-Match header requires, or null if it allows any (absent or *)
+     * @throws IllegalArgumentException unless it is * or a single product ETag
+     */
+    private static Long expectedVersion(String ifMatch) {
+        if (null == ifMatch) {
+            return null;
+        }
+        List<ETag> tags = ETag.parse(ifMatch);
+        if (tags.size() == 1 && tags.get(0).isWildcard()) {
+            return null;
+        }
+        if (tags.size() != 1 || tags.get(0).weak() || !tags.get(0).tag().matches("\\d{1,18}")) {
+            throw new IllegalArgumentException("If-Match should be * or a single product ETag");
+        }
+        return Long.parseLong(tags.get(0).tag());
+    }
+
+    /**
+     * Weak, as one catalog version validates every list and search response, whatever its query
+     */
+    private String catalogETag() {
+        return "W/\"" + catalogVersion.current() + "\"";
+    }
+
+    /**
+     * Whether any If-None-Match entry matches the ETag, compared weakly as GET requests are
+     */
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (null == ifNoneMatch) {
+            return false;
+        }
+        ETag current = ETag.create(etag);
+        return ETag.parse(ifNoneMatch).stream().anyMatch(tag -> tag.isWildcard() || tag.compare(current, false));
+    }
+
+    private static ResponseEntity<?> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+    }
 }
 
 
@@ -1,10 +1,13 @@
 package dev.andresbonelli.productcomparisonapi.api.controller;
 
+import dev.andresbonelli.productcomparisonapi.service.ApiKeyService;
 import dev.andresbonelli.productcomparisonapi.service.ProductService;
 import io.swagger.v3.oas.annotations.Hidden;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -17,6 +20,7 @@ import org.springframework.web.bind.annotation.RestController;
 public class RootController {
 
     private final ProductService productService;
+    private final ApiKeyService apiKeyService;
 
 
     @PostMapping("/reset-db")
@@ -27,4 +31,11 @@ public class RootController {
         return ResponseEntity.ok().build();
 
     }
+
+    @DeleteMapping("/keys/{keyValue}")
+    public ResponseEntity<Void> deactivateApiKey(@PathVariable String keyValue) {
+        apiKeyService.deactivate(keyValue);
+        log.info("API key deactivated.");
+        return ResponseEntity.noContent().build();
+    }
 }
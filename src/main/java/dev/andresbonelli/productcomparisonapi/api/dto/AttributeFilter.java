@@ -0,0 +1,71 @@
+package dev.andresbonelli.productcomparisonapi.api.dto;
+
+import dev.andresbonelli.productcomparisonapi.utils.SpecificationParser;
+
+import java.math.BigDecimal;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Numeric filter on one specification attribute, e.g. {@code attr.RAM>=16GB}.
+ * Values are converted to the base unit of their family, so {@code attr.Storage>=1TB} matches "1024GB".
+ *
+ * @param name normalized attribute name
+ * @param value bound in the base unit
+ * @param unit base unit, or null to compare the number whatever the unit
+ */
+public record AttributeFilter(String name, Operator operator, BigDecimal value, String unit) {
+
+    public static final String PARAMETER_PREFIX = "attr.";
+    private static final Pattern EXPRESSION = Pattern.compile("attr\\.([^<>=]+)(>=|<=|=|>|<)(.+)");
+
+    public enum Operator {
+        EQ("="), GT(">"), GTE(">="), LT("<"), LTE("<=");
+
+        private final String symbol;
+
+        Operator(String symbol) {
+            this.symbol = symbol;
+        }
+
+        static Operator of(String symbol) {
+            for (Operator operator : values()) {
+                if (operator.symbol.equals(symbol)) {
+                    return operator;
+                }
+            }
+            throw new IllegalArgumentException("Unknown operator " + symbol);
+        }
+    }
+
+    /**
+     * Parse a query parameter. In a query string {@code attr.RAM>=16GB} arrives as the
+     * name "attr.RAM>" with the value "16GB", and {@code attr.RAM>16GB} as a name without value.
+     * @throws IllegalArgumentException if the parameter is not a valid attribute filter
+     */
+    public static AttributeFilter fromParameter(String parameterName, String parameterValue) {
+        String expression = null == parameterValue || parameterValue.isEmpty()
+                ? parameterName
+                : parameterName + "=" + parameterValue;
+        Matcher matcher = EXPRESSION.matcher(expression.trim());
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException(
+                    "Invalid attribute filter '" + expression + "'. Use attr.<name><op><value>, e.g. attr.RAM>=16GB");
+        }
+        SpecificationParser.Measure measure = SpecificationParser.parseValue(matcher.group(3));
+        return new AttributeFilter(
+                SpecificationParser.normalizeName(matcher.group(1)),
+                Operator.of(matcher.group(2)),
+                measure.value(),
+                measure.unit()
+        );
+    }
+
+    /**
+     * Canonical text form, used in cache keys
+     */
+    @Override
+    public String toString() {
+        return PARAMETER_PREFIX + name + operator.symbol + value.toPlainString() + (null == unit ? "" : unit);
+    }
+}
@@ -0,0 +1,52 @@
+package dev.andresbonelli.productcomparisonapi.api.dto;
+
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(
+        name = "ComparisonMatrix",
+        description = "Products side by side with their specification attributes aligned by name"
+)
+public record ComparisonMatrix(
+        @ArraySchema(schema = @Schema(description = "Compared products, in ascending ID order",
+                implementation = ProductDTO.class))
+        List<ProductDTO> products,
+
+        @ArraySchema(schema = @Schema(description = "Attributes shared by every product, in specification order",
+                example = "ram"))
+        List<String> sharedAttributes,
+
+        @ArraySchema(schema = @Schema(description = "One row per attribute found in any product",
+                implementation = Row.class))
+        List<Row> attributes
+) {
+
+    /**
+     * @param values raw values, aligned with the products; null where a product lacks the attribute
+     * @param unit base unit the values were compared in, null if the attribute is not comparable
+     * @param best IDs of the products with the best value; empty if not comparable or all equal
+     * @param worst IDs of the products with the worst value; empty if not comparable or all equal
+     */
+    @Schema(name = "ComparisonRow", description = "One attribute across the compared products")
+    public record Row(
+            @Schema(description = "Normalized attribute name, as used in attr.* filters", example = "ram")
+            String name,
+            @Schema(description = "Raw values, aligned with the products (null where missing)")
+            List<String> values,
+            @Schema(description = "Base unit of the compared numbers", example = "gb")
+            String unit,
+            @Schema(description = "IDs of the products with the best value")
+            List<Long> best,
+            @Schema(description = "IDs of the products with the worst value")
+            List<Long> worst
+    ) {}
+
+    /**
+     * Cache key of a comparison: the distinct ids in ascending order, e.g. "1,2,3"
+     */
+    public static String key(List<Long> sortedIds) {
+        return sortedIds.stream().map(String::valueOf).reduce((a, b) -> a + "," + b).orElse("");
+    }
+}
@@ -0,0 +1,19 @@
+package dev.andresbonelli.productcomparisonapi.api.dto;
+
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(
+        name = "CursorPage",
+        description = "One page of a keyset-paginated listing"
+)
+public record CursorPage<T>(
+        @ArraySchema(
+                schema = @Schema(description = "List of products", implementation = ProductDTO.class)
+        )
+        List<T> products,
+        @Schema(description = "Opaque token for the next page, null on the last page")
+        String nextCursor
+) {}
@@ -0,0 +1,40 @@
+package dev.andresbonelli.productcomparisonapi.api.dto;
+
+import java.util.Locale;
+
+/**
+ * File formats of the catalog export
+ */
+public enum ExportFormat {
+    /** One JSON product per line */
+    NDJSON("application/x-ndjson", "ndjson"),
+    /** RFC 4180 comma-separated values with a header row */
+    CSV("text/csv", "csv");
+
+    private final String mediaType;
+    private final String extension;
+
+    ExportFormat(String mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public String mediaType() {
+        return mediaType;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the value is not one of ndjson or csv
+     */
+    public static ExportFormat fromParameter(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid export format. Use 'ndjson' or 'csv'");
+        }
+    }
+}
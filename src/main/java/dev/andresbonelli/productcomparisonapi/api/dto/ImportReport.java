@@ -0,0 +1,33 @@
+package dev.andresbonelli.productcomparisonapi.api.dto;
+
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(
+        name = "ImportReport",
+        description = "Outcome of a bulk product import"
+)
+public record ImportReport(
+        @Schema(description = "Data rows read, excluding blank lines and the CSV header", example = "1000")
+        long rows,
+        @Schema(description = "Products stored", example = "998")
+        long imported,
+        @Schema(description = "Rows rejected", example = "2")
+        long failed,
+        @ArraySchema(
+                schema = @Schema(description = "Rejected rows, the first ones up to the reporting limit")
+        )
+        List<RowError> errors
+) {
+    /**
+     * @param row 1-based number of the data row
+     */
+    public record RowError(
+            @Schema(description = "1-based data row number", example = "17")
+            long row,
+            @Schema(description = "Why the row was rejected", example = "price: Price should be greater than 0")
+            String message
+    ) {}
+}
@@ -0,0 +1,75 @@
+package dev.andresbonelli.productcomparisonapi.api.dto;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position after the last product of a page in keyset mode: its sort key and id.
+ * Clients only see it as an opaque token; it is bound to the criteria it was issued for.
+ *
+ * @param criteria hash of the normalized filters and order the cursor belongs to
+ * @param id id of the last product returned, the tie-breaker within equal sort keys
+ * @param key sort key of the last product returned, as text
+ */
+public record PageCursor(String criteria, long id, String key) {
+
+    private static final String VERSION = "1";
+    private static final String SEPARATOR = "\n";
+
+    /**
+     * Cursor after the given product for normalized criteria
+     */
+    public static PageCursor after(ProductSearchCriteria criteria, ProductDTO last) {
+        String key = switch (criteria.getSortBy()) {
+            case "name" -> last.name();
+            case "price" -> last.price().toPlainString();
+            case "rating" -> last.rating().toString();
+            default -> last.id().toString();
+        };
+        return new PageCursor(hash(criteria), last.id(), key);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the token is malformed or was issued for other criteria
+     */
+    public static PageCursor decode(String token, ProductSearchCriteria criteria) {
+        PageCursor cursor;
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8)
+                    .split(SEPARATOR, 4);
+            if (parts.length != 4 || !VERSION.equals(parts[0])) {
+                throw new IllegalArgumentException("Unknown cursor format");
+            }
+            cursor = new PageCursor(parts[1], Long.parseLong(parts[2]), parts[3]);
+            cursor.sortKey(criteria.getSortBy());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+        if (!cursor.criteria().equals(hash(criteria))) {
+            throw new IllegalArgumentException("Cursor was issued for different search criteria");
+        }
+        return cursor;
+    }
+
+    public String encode() {
+        String text = String.join(SEPARATOR, VERSION, criteria, String.valueOf(id), key);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * The key typed as the sort column: Long, String, BigDecimal or Double
+     */
+    public Comparable<?> sortKey(String sortBy) {
+        return switch (sortBy) {
+            case "name" -> key;
+            case "price" -> new BigDecimal(key);
+            case "rating" -> Double.valueOf(key);
+            default -> Long.valueOf(key);
+        };
+    }
+
+    private static String hash(ProductSearchCriteria criteria) {
+        return Integer.toHexString(criteria.filterFingerprint().hashCode());
+    }
+}
@@ -3,6 +3,7 @@ package dev.andresbonelli.productcomparisonapi.api.dto;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Schema;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import java.util.List;
 
 @Schema(
@@ -18,6 +19,13 @@ public record PagedProducts<T> (
     PaginationDetails pagination
 ) {
     public PagedProducts(Page<T> page) {
+        this(page, true);
+    }
+
+    /**
+     * @param totalExact false if the page total is only a lower bound
+     */
+    public PagedProducts(Page<T> page, boolean totalExact) {
         this(
                 page.getContent(),
                 new PaginationDetails(
@@ -25,16 +33,67 @@ public record PagedProducts<T> (
                     page.getSize(),
                     page.getTotalElements(),
                     page.getTotalPages(),
-                    page.isLast()
+                    page.isLast(),
+                    totalExact
                 )
         );
     }
 
+    /**
+     * Page read without a count query
+     * @param estimatedTotal approximate number of matches, or null to leave totals out
+     */
+    public PagedProducts(Slice<T> slice, Long estimatedTotal) {
+        this(slice.getContent(), sliceDetails(slice, estimatedTotal));
+    }
+
+    /**
+     * Same page without totals, for clients that did not ask for them
+     */
+    public PagedProducts<T> withoutTotals() {
+        return new PagedProducts<>(products, new PaginationDetails(
+                pagination.currentPage(), pagination.pageSize(), null, null, pagination.isLast(), false));
+    }
+
+    /**
+     * Totals from the estimate, corrected by what this page proves: a non-empty last page gives the
+     * exact total, any other page a lower bound (and an empty page past the end an upper bound)
+     */
+    private static PaginationDetails sliceDetails(Slice<?> slice, Long estimate) {
+        if (null == estimate) {
+            return new PaginationDetails(
+                    slice.getNumber(), slice.getSize(), null, null, slice.isLast(), false);
+        }
+        long seen = (slice.getPageable().isPaged() ? slice.getPageable().getOffset() : 0)
+                + slice.getNumberOfElements();
+        boolean exact = slice.isLast() && slice.hasContent();
+        long total;
+        if (exact) {
+            total = seen;
+        } else if (slice.isLast()) {
+            total = Math.min(estimate, seen);
+        } else {
+            total = Math.max(estimate, seen + 1);
+        }
+        return new PaginationDetails(
+                slice.getNumber(), slice.getSize(), total, totalPages(total, slice.getSize()), slice.isLast(), exact);
+    }
+
+    private static int totalPages(long total, int size) {
+        return size == 0 ? 1 : (int) Math.ceil((double) total / size);
+    }
+
+    /**
+     * @param totalElements null if the total was not requested
+     * @param totalPages null if the total was not requested
+     * @param totalExact false if the totals are an estimate
+     */
     public record PaginationDetails (
         int currentPage,
         int pageSize,
-        long totalElements,
-        int totalPages,
-        boolean isLast
+        Long totalElements,
+        Integer totalPages,
+        boolean isLast,
+        boolean totalExact
     ) {}
 }
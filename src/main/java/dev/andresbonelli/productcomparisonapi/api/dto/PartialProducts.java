@@ -0,0 +1,17 @@
+package dev.andresbonelli.productcomparisonapi.api.dto;
+
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(
+        name = "PartialProducts",
+        description = "Products found among the requested IDs, and the IDs that matched none"
+)
+public record PartialProducts(
+        @ArraySchema(schema = @Schema(implementation = ProductDTO.class, description = "Found products, in request order"))
+        List<ProductDTO> products,
+        @ArraySchema(schema = @Schema(description = "Requested IDs without a product", example = "99999"))
+        List<Long> missingIds
+) {}
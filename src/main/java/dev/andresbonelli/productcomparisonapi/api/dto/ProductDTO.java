@@ -1,10 +1,13 @@
 package dev.andresbonelli.productcomparisonapi.api.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.v3.oas.annotations.media.Schema;
 
 import java.math.BigDecimal;
 
-@Schema(description = "Represents a product for comparison")
+@Schema(description = "Represents a product for comparison. " +
+        "List endpoints may leave out fields not requested through the fields parameter")
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public record ProductDTO (
 
     @Schema(description = "Product unique ID (numerical)", example = "1")
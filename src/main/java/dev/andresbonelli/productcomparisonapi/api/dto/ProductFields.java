@@ -0,0 +1,88 @@
+package dev.andresbonelli.productcomparisonapi.api.dto;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Sparse fieldset of {@link ProductDTO}: the properties a list response carries, always including id.
+ * Properties left out are null in the DTO and omitted from the JSON.
+ */
+public record ProductFields(List<String> names) {
+    /** Every ProductDTO property, in declaration order (also the Product entity attribute names) */
+    public static final List<String> PROPERTIES =
+            List.of("id", "name", "imageUrl", "description", "price", "rating", "specifications");
+    public static final ProductFields ALL = new ProductFields(PROPERTIES);
+    /** What list pages show: everything but the long description and specifications texts */
+    public static final ProductFields SUMMARY = new ProductFields(List.of("id", "name", "imageUrl", "price", "rating"));
+    public static final String SUMMARY_VIEW = "summary";
+
+    /**
+     * @param value "summary", a comma-separated list of ProductDTO properties, or null/blank for all of them
+     * @throws IllegalArgumentException if a property is unknown
+     */
+    public static ProductFields fromParameter(String value) {
+        if (null == value || value.isBlank()) {
+            return ALL;
+        }
+        if (SUMMARY_VIEW.equalsIgnoreCase(value.trim())) {
+            return SUMMARY;
+        }
+        Set<String> requested = Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .collect(Collectors.toSet());
+        for (String name : requested) {
+            if (!PROPERTIES.contains(name)) {
+                throw new IllegalArgumentException("Unknown field '" + name + "'. Use 'summary' or any of " + PROPERTIES);
+            }
+        }
+        return new ProductFields(PROPERTIES.stream()
+                .filter(name -> "id".equals(name) || requested.contains(name))
+                .toList());
+    }
+
+    public boolean isAll() {
+        return names.size() == PROPERTIES.size();
+    }
+
+    public boolean includes(String name) {
+        return names.contains(name);
+    }
+
+    /**
+     * These fields plus the given ones, e.g. a sort column a cursor needs
+     */
+    public ProductFields with(String name) {
+        return includes(name) ? this : new ProductFields(PROPERTIES.stream()
+                .filter(property -> property.equals(name) || includes(property))
+                .toList());
+    }
+
+    /**
+     * Copy of the product holding only these fields
+     */
+    public ProductDTO apply(ProductDTO product) {
+        if (isAll()) {
+            return product;
+        }
+        return new ProductDTO(
+                product.id(),
+                includes("name") ? product.name() : null,
+                includes("imageUrl") ? product.imageUrl() : null,
+                includes("description") ? product.description() : null,
+                includes("price") ? product.price() : null,
+                includes("rating") ? product.rating() : null,
+                includes("specifications") ? product.specifications() : null
+        );
+    }
+
+    /**
+     * Canonical text, equal for equivalent fieldsets; used in cache keys
+     */
+    @Override
+    public String toString() {
+        return String.join(",", names);
+    }
+}
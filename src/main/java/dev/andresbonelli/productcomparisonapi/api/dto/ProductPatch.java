@@ -0,0 +1,70 @@
+package dev.andresbonelli.productcomparisonapi.api.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A JSON merge patch (RFC 7396) of a product: the properties to change with their new values.
+ * Every product property is mandatory, so a null, which would remove the property, is rejected.
+ *
+ * @param changes new values by Product attribute name, typed as the attribute
+ */
+public record ProductPatch(Map<String, Object> changes) {
+    public static final String MEDIA_TYPE = "application/merge-patch+json";
+
+    /**
+     * @param productId id of the patched product; the patch may repeat it but not change it
+     * @throws IllegalArgumentException if the patch is not an object, names an unknown property,
+     * removes one or gives a value of the wrong type
+     */
+    public static ProductPatch fromJson(JsonNode patch, Long productId) {
+        if (null == patch || !patch.isObject()) {
+            throw new IllegalArgumentException("A merge patch should be a JSON object");
+        }
+        Map<String, Object> changes = new LinkedHashMap<>();
+        Iterator<Map.Entry<String, JsonNode>> fields = patch.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            String name = field.getKey();
+            JsonNode value = field.getValue();
+            if (!ProductFields.PROPERTIES.contains(name)) {
+                throw new IllegalArgumentException(
+                        "Unknown property '" + name + "'. Use any of " + ProductFields.PROPERTIES);
+            }
+            if (value.isNull()) {
+                throw new IllegalArgumentException("Property '" + name + "' is mandatory and cannot be removed");
+            }
+            switch (name) {
+                case "id" -> {
+                    if (!value.canConvertToLong() || !Objects.equals(value.longValue(), productId)) {
+                        throw new IllegalArgumentException("Product id cannot be changed");
+                    }
+                }
+                case "price" -> changes.put(name, number(name, value).decimalValue());
+                case "rating" -> changes.put(name, number(name, value).doubleValue());
+                default -> {
+                    if (!value.isTextual()) {
+                        throw new IllegalArgumentException("Property '" + name + "' should be a string");
+                    }
+                    changes.put(name, value.textValue());
+                }
+            }
+        }
+        return new ProductPatch(changes);
+    }
+
+    public boolean isEmpty() {
+        return changes.isEmpty();
+    }
+
+    private static JsonNode number(String name, JsonNode value) {
+        if (!value.isNumber()) {
+            throw new IllegalArgumentException("Property '" + name + "' should be a number");
+        }
+        return value;
+    }
+}
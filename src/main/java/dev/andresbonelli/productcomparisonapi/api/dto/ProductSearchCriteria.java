@@ -1,19 +1,94 @@
 package dev.andresbonelli.productcomparisonapi.api.dto;
 
+import dev.andresbonelli.productcomparisonapi.utils.TextFolding;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
 
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 public class ProductSearchCriteria {
+        public static final String DEFAULT_SORT_BY = "id";
+        public static final String DEFAULT_SORT_DIR = "asc";
+        /** Prices are stored as DECIMAL(19, 2) */
+        public static final int PRICE_SCALE = 2;
+
         private String sortBy;
         private String sortDir;
         private String name;
         private BigDecimal minPrice;
         private BigDecimal maxPrice;
         private Double minRating;
+        /** Specification attribute filters, all of which must match */
+        private List<AttributeFilter> attributes = List.of();
+
+        public ProductSearchCriteria(String sortBy, String sortDir, String name,
+                                     BigDecimal minPrice, BigDecimal maxPrice, Double minRating) {
+                this(sortBy, sortDir, name, minPrice, maxPrice, minRating, List.of());
+        }
+
+        public boolean hasAttributes() {
+                return null != attributes && !attributes.isEmpty();
+        }
+
+        /**
+         * Canonical copy of these criteria: defaults filled in, name trimmed and folded (lower case, no accents),
+         * price bounds at the column scale (rounded inwards), attribute filters in a fixed order.
+         * Equivalent searches normalize to equal criteria.
+         */
+        public ProductSearchCriteria normalized() {
+                String normalizedName = null == name || name.isBlank() ? null : TextFolding.fold(name.trim());
+                return new ProductSearchCriteria(
+                        null == sortBy ? DEFAULT_SORT_BY : sortBy,
+                        null == sortDir ? DEFAULT_SORT_DIR : sortDir.toLowerCase(Locale.ROOT),
+                        normalizedName,
+                        null == minPrice ? null : minPrice.setScale(PRICE_SCALE, RoundingMode.CEILING),
+                        null == maxPrice ? null : maxPrice.setScale(PRICE_SCALE, RoundingMode.FLOOR),
+                        minRating,
+                        null == attributes
+                                ? List.of()
+                                : attributes.stream().distinct().sorted(Comparator.comparing(String::valueOf)).toList()
+                );
+        }
+
+        /**
+         * Normalized copy in the default order, for keys of values the order does not change (e.g. counts)
+         */
+        public ProductSearchCriteria withoutOrder() {
+                ProductSearchCriteria c = normalized();
+                c.setSortBy(DEFAULT_SORT_BY);
+                c.setSortDir(DEFAULT_SORT_DIR);
+                return c;
+        }
+
+        /**
+         * Cache key for one page of results of these criteria
+         */
+        public String fingerprint(int page, int size) {
+                return filterFingerprint() + "|" + page + "-" + size;
+        }
+
+        /**
+         * Canonical text of the filters and order, identical for equivalent criteria
+         */
+        public String filterFingerprint() {
+                ProductSearchCriteria c = normalized();
+                return String.join("|",
+                        c.sortBy,
+                        c.sortDir,
+                        String.valueOf(c.name),
+                        null == c.minPrice ? "null" : c.minPrice.toPlainString(),
+                        null == c.maxPrice ? "null" : c.maxPrice.toPlainString(),
+                        String.valueOf(c.minRating),
+                        c.attributes.stream().map(String::valueOf).collect(Collectors.joining(","))
+                );
+        }
 }
@@ -0,0 +1,26 @@
+package dev.andresbonelli.productcomparisonapi.api.dto;
+
+import java.util.Locale;
+
+/**
+ * How the total of a paged search is obtained
+ */
+public enum TotalCount {
+    /** Count query on every request */
+    EXACT,
+    /** Count cached per filter and refreshed in the background; may lag recent writes */
+    ESTIMATE,
+    /** No total, only whether a next page exists */
+    NONE;
+
+    /**
+     * @throws IllegalArgumentException if the value is not one of exact, estimate or none
+     */
+    public static TotalCount fromParameter(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid count mode. Use 'exact', 'estimate' or 'none'");
+        }
+    }
+}
@@ -1,39 +1,103 @@
 package dev.andresbonelli.productcomparisonapi.api.filter;
 
+import dev.andresbonelli.productcomparisonapi.domain.entity.ApiKey;
+import dev.andresbonelli.productcomparisonapi.domain.entity.Role;
+import dev.andresbonelli.productcomparisonapi.service.ApiKeyBloomFilter;
+import dev.andresbonelli.productcomparisonapi.service.ApiKeyRateLimiter;
 import dev.andresbonelli.productcomparisonapi.service.ApiKeyService;
+import dev.andresbonelli.productcomparisonapi.service.ApiKeyUsageTracker;
+import dev.andresbonelli.productcomparisonapi.utils.TokenBucket;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 public class ApiKeyFilter extends OncePerRequestFilter {
+    private static final Map<Role, List<GrantedAuthority>> AUTHORITIES = new EnumMap<>(Role.class);
+    private static final String QUOTA_EXCEEDED_BODY =
+            "{ \"status\": 429, \"error\": \"Too Many Requests\", \"message\": \"You have exhausted your API Request Quota\" }";
+
+    static {
+        for (Role role : Role.values()) {
+            AUTHORITIES.put(role, List.of(new SimpleGrantedAuthority("ROLE_" + role.name())));
+        }
+    }
+
     private final ApiKeyService apiKeyService;
+    private final ApiKeyBloomFilter bloomFilter;
+    private final ApiKeyUsageTracker usageTracker;
+    private final ApiKeyRateLimiter rateLimiter;
 
-    public ApiKeyFilter(ApiKeyService apiKeyService) {
+    public ApiKeyFilter(ApiKeyService apiKeyService, ApiKeyBloomFilter bloomFilter, ApiKeyUsageTracker usageTracker,
+                        ApiKeyRateLimiter rateLimiter) {
         this.apiKeyService = apiKeyService;
+        this.bloomFilter = bloomFilter;
+        this.usageTracker = usageTracker;
+        this.rateLimiter = rateLimiter;
     }
 
+    /**
+     * Requests a valid key authenticates count against the key's bucket; every other /api request, including
+     * one with a rejected key, counts against the caller's anonymous bucket.
+     */
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
             throws ServletException, IOException {
 
         String headerKey = request.getHeader("X-API-KEY");
+        Optional<ApiKey> authenticated = Optional.empty();
+        // Keys never issued are dropped here without any cache or database lookup
+        if (headerKey != null && bloomFilter.mightContain(headerKey)) {
+            authenticated = apiKeyService.validate(headerKey);
+        }
 
-        if (headerKey != null) {
-            apiKeyService.validate(headerKey).ifPresent(apiKey -> {
-                var authorities = List.of(new SimpleGrantedAuthority("ROLE_" + apiKey.getRole()));
-                var auth = new UsernamePasswordAuthenticationToken(apiKey.getKeyValue(), null, authorities);
-                SecurityContextHolder.getContext().setAuthentication(auth);
-            });
+        if (authenticated.isPresent()) {
+            ApiKey apiKey = authenticated.get();
+            TokenBucket bucket = rateLimiter.keyBucket(apiKey);
+            if (null != bucket && !bucket.tryConsume()) {
+                rejectQuotaExceeded(response, bucket);
+                return;
+            }
+            if (null != bucket) {
+                response.setHeader("X-Rate-Limit-Remaining", String.valueOf(bucket.getAvailableTokens()));
+            }
+            var authorities = AUTHORITIES.get(apiKey.getRole());
+            var auth = new UsernamePasswordAuthenticationToken(apiKey.getKeyValue(), null, authorities);
+            SecurityContextHolder.getContext().setAuthentication(auth);
+            usageTracker.record(apiKey.getId());
+        } else if (isApiRequest(request)) {
+            TokenBucket anonymous = rateLimiter.anonymousBucket(request.getRemoteAddr());
+            if (null != anonymous && !anonymous.tryConsume()) {
+                rejectQuotaExceeded(response, anonymous);
+                return;
+            }
         }
 
         chain.doFilter(request, response);
     }
+
+    private static boolean isApiRequest(HttpServletRequest request) {
+        return request.getRequestURI().startsWith(request.getContextPath() + "/api/");
+    }
+
+    private void rejectQuotaExceeded(HttpServletResponse response, TokenBucket bucket) throws IOException {
+        long retryAfterSeconds = Math.max(1, (long) Math.ceil(bucket.getTimeToNextToken().toMillis() / 1000.0));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader("X-Rate-Limit-Retry-After-Seconds", String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write(QUOTA_EXCEEDED_BODY);
+    }
 }
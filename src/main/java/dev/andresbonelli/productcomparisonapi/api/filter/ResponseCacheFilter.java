@@ -0,0 +1,201 @@
+package dev.andresbonelli.productcomparisonapi.api.filter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.andresbonelli.productcomparisonapi.service.ProductChangedEvent;
+import dev.andresbonelli.productcomparisonapi.service.catalog.CatalogVersion;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cache of the final bytes of the hot product GET responses (lists, searches, comparisons and single products),
+ * keyed on the path and the sorted query parameters. Bodies large enough to be compressed are stored gzipped too,
+ * so a hit is written straight to the output stream without Jackson or the compressor running again.
+ * <p>
+ * Entries remember the {@link CatalogVersion} read before their response was computed and only serve while it is
+ * current; a response computed while a write was committing is therefore never served. Every product write also
+ * clears the cache to free the memory right away.
+ */
+public class ResponseCacheFilter extends OncePerRequestFilter implements MeterBinder {
+    private static final Pattern CACHEABLE_PATH =
+            Pattern.compile("/api/products(/\\d+|/advancedSearch|/search|/compare)?/?");
+
+    private final CatalogVersion catalogVersion;
+    private final Cache<String, CachedResponse> cache;
+    private final long maxEntryBytes;
+    private final long minCompressBytes;
+
+    /**
+     * @param maxBytes total size of the cached bodies, both variants counted
+     * @param maxEntryBytes larger responses are not cached
+     * @param minCompressBytes smaller bodies are only stored uncompressed (as server.compression does)
+     */
+    public ResponseCacheFilter(CatalogVersion catalogVersion, long maxBytes, long maxEntryBytes,
+                               long minCompressBytes, Duration expireAfterWrite) {
+        this.catalogVersion = catalogVersion;
+        this.maxEntryBytes = maxEntryBytes;
+        this.minCompressBytes = minCompressBytes;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .<String, CachedResponse>weigher((key, response) -> response.weight())
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * A response as sent: status 200, its content type and ETag, the body and its gzip encoding if worth one
+     * @param catalogVersion catalog version read before the response was computed
+     * @param gzip null for bodies below the compression threshold
+     */
+    record CachedResponse(String catalogVersion, String contentType, String etag, byte[] body, byte[] gzip) {
+        int weight() {
+            return body.length + (null == gzip ? 0 : gzip.length);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(ProductChangedEvent.DERIVED_STATE_ORDER)
+    public void onProductChanged(ProductChangedEvent event) {
+        // Any write may change any list; single products are not worth tracking apart
+        cache.invalidateAll();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.GET.matches(request.getMethod())
+                || !CACHEABLE_PATH.matcher(request.getRequestURI().substring(request.getContextPath().length()))
+                        .matches();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String key = key(request);
+        // Read first: the response computed below is at least this recent
+        String version = catalogVersion.current();
+        CachedResponse cached = cache.getIfPresent(key);
+        if (null != cached && cached.catalogVersion().equals(version)) {
+            if (null == cached.etag() || !new ServletWebRequest(request, response).checkNotModified(cached.etag())) {
+                write(cached, request, response);
+            }
+            return;
+        }
+
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        chain.doFilter(request, wrapper);
+        if (!isCacheable(wrapper)) {
+            wrapper.copyBodyToResponse();
+            return;
+        }
+        byte[] body = wrapper.getContentAsByteArray();
+        CachedResponse fresh = new CachedResponse(version, wrapper.getContentType(),
+                wrapper.getHeader(HttpHeaders.ETAG), body, body.length >= minCompressBytes ? gzip(body) : null);
+        cache.put(key, fresh);
+        // The gzip copy is already made, so this response does not need compressing again either
+        wrapper.resetBuffer();
+        write(fresh, request, response);
+    }
+
+    private boolean isCacheable(ContentCachingResponseWrapper response) {
+        return HttpStatus.OK.value() == response.getStatus()
+                && null != response.getContentType()
+                && MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(response.getContentType()))
+                && response.getContentSize() <= maxEntryBytes;
+    }
+
+    private static void write(CachedResponse cached, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        response.setContentType(cached.contentType());
+        String etag = cached.etag();
+        byte[] body = cached.body();
+        if (null != cached.gzip() && acceptsGzip(request)) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            body = cached.gzip();
+            // Another encoding is another representation: a strong ETag would claim equal bytes
+            if (null != etag && !etag.startsWith("W/")) {
+                etag = "W/" + etag;
+            }
+        }
+        if (null != etag) {
+            response.setHeader(HttpHeaders.ETAG, etag);
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    /**
+     * Path plus the query parameters sorted by name, so parameter order does not split entries
+     */
+    private static String key(HttpServletRequest request) {
+        StringBuilder key = new StringBuilder(request.getRequestURI());
+        for (Map.Entry<String, String[]> parameter : new TreeMap<>(request.getParameterMap()).entrySet()) {
+            String name = URLEncoder.encode(parameter.getKey(), StandardCharsets.UTF_8);
+            for (String value : parameter.getValue()) {
+                key.append('&').append(name).append('=').append(URLEncoder.encode(value, StandardCharsets.UTF_8));
+            }
+        }
+        return key.toString();
+    }
+
+    /**
+     * Whether Accept-Encoding lists gzip (or *) without q=0
+     */
+    static boolean acceptsGzip(HttpServletRequest request) {
+        String header = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (null == header) {
+            return false;
+        }
+        for (String coding : header.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            if (!"gzip".equalsIgnoreCase(name) && !"*".equals(name)) {
+                continue;
+            }
+            boolean refused = parts.length > 1 && parts[1].trim().matches("q\\s*=\\s*0(\\.0*)?");
+            return !refused;
+        }
+        return false;
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "responses");
+    }
+}
@@ -1,19 +1,79 @@
 package dev.andresbonelli.productcomparisonapi.config;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Weigher;
+import dev.andresbonelli.productcomparisonapi.api.dto.ComparisonMatrix;
+import dev.andresbonelli.productcomparisonapi.api.dto.PagedProducts;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.List;
+
+/**
+ * Bounded Caffeine caches, one per region, sized and expired according to {@link CacheProperties}.
+ * Hit, miss and eviction statistics are exposed by actuator under cache.* metrics.
+ */
 @Configuration
 @EnableCaching
+@EnableConfigurationProperties(CacheProperties.class)
 public class CacheConfig {
 
     public static final String PRODUCTS_CACHE = "products";
+    public static final String PRODUCT_CACHE = "product";
+    public static final String SEARCH_CACHE = "productSearch";
+    public static final String COMPARISON_CACHE = "comparison";
+
+    public static final List<String> REGIONS = List.of(PRODUCTS_CACHE, PRODUCT_CACHE, SEARCH_CACHE, COMPARISON_CACHE);
+
+    /**
+     * Paged results and comparisons weigh as many units as products they hold, everything else weighs one
+     */
+    private static final Weigher<Object, Object> PRODUCT_WEIGHER = (key, value) -> {
+        if (value instanceof PagedProducts<?> paged) {
+            return Math.max(1, paged.products().size());
+        }
+        if (value instanceof ComparisonMatrix matrix) {
+            return Math.max(1, matrix.products().size());
+        }
+        return 1;
+    };
 
     @Bean
-    public CacheManager cacheManager() {
-        return new ConcurrentMapCacheManager(PRODUCTS_CACHE);
+    public CacheManager cacheManager(CacheProperties properties) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager() {
+            @Override
+            protected org.springframework.cache.Cache adaptCaffeineCache(String name, Cache<Object, Object> cache) {
+                return PRODUCT_CACHE.equals(name)
+                        ? new VersionedProductCache(name, cache, isAllowNullValues())
+                        : super.adaptCaffeineCache(name, cache);
+            }
+        };
+        // Only the configured regions exist; unknown cache names are not created on the fly
+        cacheManager.setCacheNames(List.of());
+        for (String name : REGIONS) {
+            cacheManager.registerCustomCache(name, buildRegion(properties.region(name)).build());
+        }
+        return cacheManager;
+    }
+
+    private static Caffeine<Object, Object> buildRegion(CacheProperties.Region region) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .maximumWeight(region.maximumWeight())
+                .weigher(PRODUCT_WEIGHER);
+        if (null != region.expireAfterWrite()) {
+            builder.expireAfterWrite(region.expireAfterWrite());
+        }
+        if (null != region.expireAfterAccess()) {
+            builder.expireAfterAccess(region.expireAfterAccess());
+        }
+        if (region.recordStats()) {
+            builder.recordStats();
+        }
+        return builder;
     }
 }
@@ -0,0 +1,33 @@
+package dev.andresbonelli.productcomparisonapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Per-region cache settings, bound from app.cache.regions.{name}.*
+ */
+@ConfigurationProperties(prefix = "app.cache")
+public record CacheProperties(
+        @DefaultValue Map<String, Region> regions
+) {
+
+    /**
+     * @param maximumWeight upper bound of the summed entry weights (one per cached product)
+     * @param expireAfterWrite null to keep entries regardless of age
+     * @param expireAfterAccess null to keep idle entries
+     * @param recordStats publish hit/miss/eviction statistics
+     */
+    public record Region(
+            @DefaultValue("1000") long maximumWeight,
+            Duration expireAfterWrite,
+            Duration expireAfterAccess,
+            @DefaultValue("true") boolean recordStats
+    ) {}
+
+    public Region region(String name) {
+        return regions.getOrDefault(name, new Region(1000, null, null, true));
+    }
+}
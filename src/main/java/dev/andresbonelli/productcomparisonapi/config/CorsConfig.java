@@ -27,7 +27,9 @@ public class CorsConfig {
         config.setExposedHeaders(Arrays.asList(
                 "Authorization",
                 "Content-Type",
-                "X-Total-Count"
+                "X-Total-Count",
+                "X-Rate-Limit-Remaining",
+                "X-Rate-Limit-Retry-After-Seconds"
         ));
         config.setMaxAge(3600L);
         source.registerCorsConfiguration("/api/**", config);
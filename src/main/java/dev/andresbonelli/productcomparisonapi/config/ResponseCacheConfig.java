@@ -0,0 +1,32 @@
+package dev.andresbonelli.productcomparisonapi.config;
+
+import dev.andresbonelli.productcomparisonapi.api.filter.ResponseCacheFilter;
+import dev.andresbonelli.productcomparisonapi.service.catalog.CatalogVersion;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Serialized response cache (app.response-cache.*). The filter runs after the security chain, so
+ * authentication and rate limits still apply to every cached response.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.response-cache.enabled", havingValue = "true", matchIfMissing = true)
+public class ResponseCacheConfig {
+
+    @Bean
+    public ResponseCacheFilter responseCacheFilter(
+            CatalogVersion catalogVersion,
+            @Value("${app.response-cache.maximum-size:64MB}") DataSize maximumSize,
+            @Value("${app.response-cache.max-entry-size:1MB}") DataSize maxEntrySize,
+            @Value("${server.compression.min-response-size:2KB}") DataSize minCompressSize,
+            @Value("${app.response-cache.expire-after-write:10m}") Duration expireAfterWrite
+    ) {
+        return new ResponseCacheFilter(catalogVersion, maximumSize.toBytes(), maxEntrySize.toBytes(),
+                minCompressSize.toBytes(), expireAfterWrite);
+    }
+}
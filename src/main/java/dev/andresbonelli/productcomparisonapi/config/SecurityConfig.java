@@ -2,7 +2,10 @@ package dev.andresbonelli.productcomparisonapi.config;
 
 import dev.andresbonelli.productcomparisonapi.api.filter.ApiKeyFilter;
 import dev.andresbonelli.productcomparisonapi.domain.entity.Role;
+import dev.andresbonelli.productcomparisonapi.service.ApiKeyBloomFilter;
+import dev.andresbonelli.productcomparisonapi.service.ApiKeyRateLimiter;
 import dev.andresbonelli.productcomparisonapi.service.ApiKeyService;
+import dev.andresbonelli.productcomparisonapi.service.ApiKeyUsageTracker;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -17,7 +20,13 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 public class SecurityConfig {
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http, ApiKeyService service) throws Exception {
+    public SecurityFilterChain filterChain(
+            HttpSecurity http,
+            ApiKeyService service,
+            ApiKeyBloomFilter bloomFilter,
+            ApiKeyUsageTracker usageTracker,
+            ApiKeyRateLimiter rateLimiter
+    ) throws Exception {
         http
                 .csrf(AbstractHttpConfigurer::disable)
                 .sessionManagement(s -> s.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
@@ -37,7 +46,10 @@ public class SecurityConfig {
                         )
                         .anyRequest().authenticated()
                 )
-                .addFilterBefore(new ApiKeyFilter(service), UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(
+                        new ApiKeyFilter(service, bloomFilter, usageTracker, rateLimiter),
+                        UsernamePasswordAuthenticationFilter.class
+                );
 
         return http.build();
     }
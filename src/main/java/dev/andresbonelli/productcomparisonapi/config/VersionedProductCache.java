@@ -0,0 +1,30 @@
+package dev.andresbonelli.productcomparisonapi.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import dev.andresbonelli.productcomparisonapi.service.VersionedProduct;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+/**
+ * Product region that never replaces a cached product with an older version. A reader that loaded the row
+ * before a write committed may store its copy after the write's own put; that copy is dropped instead of
+ * being served, with its stale ETag, until it expires.
+ */
+public class VersionedProductCache extends CaffeineCache {
+
+    public VersionedProductCache(String name, Cache<Object, Object> cache, boolean allowNullValues) {
+        super(name, cache, allowNullValues);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (value instanceof VersionedProduct offered) {
+            getNativeCache().asMap().merge(key, offered, (cached, newer) -> isNewer(cached, offered) ? cached : newer);
+        } else {
+            super.put(key, value);
+        }
+    }
+
+    private static boolean isNewer(Object cached, VersionedProduct offered) {
+        return cached instanceof VersionedProduct product && product.version() > offered.version();
+    }
+}
@@ -17,5 +17,9 @@ public class ApiKey {
     private Role role;
     private LocalDateTime expiresAt;
     private boolean isActive;
-
+    // Written only by the usage tracker's batch flush, never by entity saves
+    @Column(insertable = false, updatable = false)
+    private LocalDateTime lastUsedAt;
+    @Column(insertable = false, updatable = false)
+    private long requestCount;
 }
\ No newline at end of file
@@ -5,7 +5,9 @@ import jakarta.validation.constraints.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import java.math.BigDecimal;
 
 @Entity
@@ -25,6 +27,12 @@ public class Product {
     @Column(nullable = false)
     private String name;
 
+    /** LOWER(name), generated by the database; read-only here */
+    @Column(name = "name_lower", insertable = false, updatable = false)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private String nameLower;
+
     @NotBlank(message = "Image URL is mandatory")
     @Column(name = "image_url", nullable = false)
     private String imageUrl;
@@ -48,4 +56,9 @@ public class Product {
     @NotBlank(message = "Product specifications is mandatory")
     @Column(nullable = false, length = 2000)
     private String specifications;
+
+    /** Incremented on every update; null until the product is first stored */
+    @Version
+    @Column(nullable = false)
+    private Long version;
 }
@@ -0,0 +1,42 @@
+package dev.andresbonelli.productcomparisonapi.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * One attribute parsed from a product's specifications, e.g. RAM = 16 (gb)
+ */
+@Entity
+@Table(name = "product_attribute")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductAttribute {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    /** Lower-cased attribute name */
+    @Column(nullable = false, length = 100)
+    private String name;
+
+    @Column(name = "text_value", nullable = false)
+    private String textValue;
+
+    /** Value in the base unit, null if the attribute is not numeric */
+    @Column(name = "numeric_value", precision = 19, scale = 4)
+    private BigDecimal numericValue;
+
+    @Column(length = 16)
+    private String unit;
+}
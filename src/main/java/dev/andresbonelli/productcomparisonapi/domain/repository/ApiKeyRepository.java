@@ -1,12 +1,54 @@
 package dev.andresbonelli.productcomparisonapi.domain.repository;
 
 import dev.andresbonelli.productcomparisonapi.domain.entity.ApiKey;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ApiKeyRepository extends JpaRepository<ApiKey, Long> {
     Optional<ApiKey> findByKeyValue(String keyValue);
+
+    /**
+     * Every issued key value, streamed so the whole table is never held in memory
+     */
+    @Query("SELECT k.keyValue FROM ApiKey k")
+    Stream<String> streamAllKeyValues();
+
+    /**
+     * Next chunk of active keys already past their expiry, in primary key order after the given id
+     */
+    @Query("SELECT k FROM ApiKey k WHERE k.id > :afterId AND k.isActive = true AND k.expiresAt < :now ORDER BY k.id")
+    List<ApiKey> findExpiredActiveAfter(
+            @Param("afterId") Long afterId,
+            @Param("now") LocalDateTime now,
+            Pageable limit
+    );
+
+    /**
+     * Next chunk of inactive keys expired before the cutoff, in primary key order after the given id
+     */
+    @Query("SELECT k.id FROM ApiKey k WHERE k.id > :afterId AND k.isActive = false AND k.expiresAt < :cutoff ORDER BY k.id")
+    List<Long> findPurgeableIdsAfter(
+            @Param("afterId") Long afterId,
+            @Param("cutoff") LocalDateTime cutoff,
+            Pageable limit
+    );
+
+    @Modifying
+    @Query("UPDATE ApiKey k SET k.isActive = false WHERE k.id IN :ids")
+    int deactivateAllByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM ApiKey k WHERE k.id IN :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,54 @@
+package dev.andresbonelli.productcomparisonapi.domain.repository;
+
+import dev.andresbonelli.productcomparisonapi.domain.entity.ProductAttribute;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+public interface ProductAttributeRepository extends JpaRepository<ProductAttribute, Long> {
+
+    /**
+     * Ascending ids of products whose attribute, in the given unit, lies in [min, max].
+     * An index range scan on (name, unit, numeric_value).
+     */
+    @Query("""
+        SELECT a.productId FROM ProductAttribute a
+        WHERE a.name = :name AND a.unit = :unit
+          AND a.numericValue >= :min AND a.numericValue <= :max
+        ORDER BY a.productId
+        """)
+    List<Long> findProductIdsInRange(
+            @Param("name") String name,
+            @Param("unit") String unit,
+            @Param("min") BigDecimal min,
+            @Param("max") BigDecimal max
+    );
+
+    /**
+     * Same as {@link #findProductIdsInRange} for a bound given without unit
+     */
+    @Query("""
+        SELECT a.productId FROM ProductAttribute a
+        WHERE a.name = :name
+          AND a.numericValue >= :min AND a.numericValue <= :max
+        ORDER BY a.productId
+        """)
+    List<Long> findProductIdsInRangeAnyUnit(
+            @Param("name") String name,
+            @Param("min") BigDecimal min,
+            @Param("max") BigDecimal max
+    );
+
+    @Modifying
+    @Query("DELETE FROM ProductAttribute a WHERE a.productId = :productId")
+    int deleteByProductId(@Param("productId") Long productId);
+
+    @Modifying
+    @Query("DELETE FROM ProductAttribute a WHERE a.productId IN :productIds")
+    int deleteByProductIdIn(@Param("productIds") Collection<Long> productIds);
+}
@@ -0,0 +1,17 @@
+package dev.andresbonelli.productcomparisonapi.domain.repository;
+
+import java.util.Map;
+
+/**
+ * In-place updates of some product columns, without loading the product first
+ */
+public interface ProductPatchRepository {
+
+    /**
+     * One UPDATE setting only the given attributes and incrementing the version. Bypasses the persistence context: a product already
+     * loaded in it keeps its old values.
+     * @param values new values by Product attribute name, at least one
+     * @return rows updated, 0 if there is no product with the id
+     */
+    int updateAttributes(Long id, Map<String, Object> values);
+}
@@ -0,0 +1,34 @@
+package dev.andresbonelli.productcomparisonapi.domain.repository;
+
+import dev.andresbonelli.productcomparisonapi.domain.entity.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Root;
+
+import java.util.Map;
+
+/**
+ * Criteria bulk updates, so the statement names only the changed columns (and the version, which
+ * bulk updates do not increment on their own)
+ */
+class ProductPatchRepositoryImpl implements ProductPatchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int updateAttributes(Long id, Map<String, Object> values) {
+        if (values.isEmpty()) {
+            throw new IllegalArgumentException("Nothing to update");
+        }
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Product> update = cb.createCriteriaUpdate(Product.class);
+        Root<Product> root = update.from(Product.class);
+        values.forEach(update::set);
+        update.set(root.<Long>get("version"), cb.sum(root.<Long>get("version"), 1L));
+        update.where(cb.equal(root.get("id"), id));
+        return entityManager.createQuery(update).executeUpdate();
+    }
+}
@@ -0,0 +1,24 @@
+package dev.andresbonelli.productcomparisonapi.domain.repository;
+
+import dev.andresbonelli.productcomparisonapi.domain.entity.Product;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Queries that select only some product columns, leaving the long texts out when they are not needed
+ */
+public interface ProductProjectionRepository {
+
+    /**
+     * Products matching the specification with only the given attributes loaded; the rest stay null.
+     * The products are detached copies, not managed entities.
+     * @param attributes Product attribute names, e.g. id, name, price
+     * @param limit maximum number of products returned
+     * @throws IllegalArgumentException if an attribute is unknown
+     */
+    List<Product> findAllWithAttributes(
+            Specification<Product> specification, Collection<String> attributes, Sort sort, long offset, int limit);
+}
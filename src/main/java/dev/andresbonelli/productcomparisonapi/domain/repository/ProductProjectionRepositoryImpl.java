@@ -0,0 +1,74 @@
+package dev.andresbonelli.productcomparisonapi.domain.repository;
+
+import dev.andresbonelli.productcomparisonapi.domain.entity.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Tuple queries over the requested columns, copied into plain {@link Product} instances
+ */
+class ProductProjectionRepositoryImpl implements ProductProjectionRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Product> findAllWithAttributes(
+            Specification<Product> specification, Collection<String> attributes, Sort sort, long offset, int limit) {
+        List<String> selected = List.copyOf(attributes);
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Product> root = query.from(Product.class);
+        List<Selection<?>> columns = new ArrayList<>(selected.size());
+        for (String attribute : selected) {
+            columns.add(root.get(attribute));
+        }
+        query.multiselect(columns);
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (null != predicate) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(sort, root, cb));
+
+        List<Tuple> rows = entityManager.createQuery(query)
+                .setFirstResult(Math.toIntExact(offset))
+                .setMaxResults(limit)
+                .getResultList();
+        List<Product> products = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            Product product = new Product();
+            for (int i = 0; i < selected.size(); i++) {
+                set(product, selected.get(i), row.get(i));
+            }
+            products.add(product);
+        }
+        return products;
+    }
+
+    private static void set(Product product, String attribute, Object value) {
+        switch (attribute) {
+            case "id" -> product.setId((Long) value);
+            case "name" -> product.setName((String) value);
+            case "imageUrl" -> product.setImageUrl((String) value);
+            case "description" -> product.setDescription((String) value);
+            case "price" -> product.setPrice((BigDecimal) value);
+            case "rating" -> product.setRating((Double) value);
+            case "specifications" -> product.setSpecifications((String) value);
+            default -> throw new IllegalArgumentException("Unknown product attribute '" + attribute + "'");
+        }
+    }
+}
@@ -1,21 +1,43 @@
 package dev.andresbonelli.productcomparisonapi.domain.repository;
 
 import dev.andresbonelli.productcomparisonapi.domain.entity.Product;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository
+        extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product>,
+        ProductProjectionRepository, ProductPatchRepository {
     /**
-     * Partial case-insensitive search by product name (containing the specified string)
+     * Current version of a product, read without loading it
      */
-    @Query("SELECT p FROM Product p WHERE LOWER(p.name) LIKE LOWER(CONCAT('%', :name, '%'))")
-    List<Product> findByNameContainingIgnoreCase(@Param("name") String name);
+    @Query("SELECT p.version FROM Product p WHERE p.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    /**
+     * Id and name of every product, for building in-memory name indexes
+     */
+    @Query("SELECT p.id AS id, p.name AS name FROM Product p")
+    Stream<IdAndName> streamIdsAndNames();
+
+    /**
+     * Id and searchable text of every product, for building the in-memory full-text index
+     */
+    @Query("SELECT p.id AS id, p.description AS description, p.specifications AS specifications FROM Product p")
+    Stream<IdAndText> streamIdsAndTexts();
+
+    /**
+     * Next products after the given id, in id order, for keyset-paged batch jobs
+     */
+    @Query("SELECT p.id AS id, p.specifications AS specifications FROM Product p WHERE p.id > :afterId ORDER BY p.id")
+    List<IdAndSpecifications> findSpecificationsAfter(@Param("afterId") Long afterId, Pageable pageable);
 
     /**
      * Search for products with a rating greater than or equal to the specified rating
@@ -28,26 +50,23 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     @Query("SELECT p FROM Product p WHERE p.price BETWEEN :minPrice AND :maxPrice")
     List<Product> findByPriceRange(BigDecimal minPrice, BigDecimal maxPrice);
 
-    @Query(value = """
-        SELECT * FROM product p 
-        WHERE (:name IS NULL OR p.name LIKE %:name%)
-          AND (:minPrice IS NULL OR p.price >= :minPrice)
-          AND (:maxPrice IS NULL OR p.price <= :maxPrice)
-          AND (:minRating IS NULL OR p.rating >= :minRating)
-        """,
-            countQuery = """
-        SELECT count(*) FROM product p 
-        WHERE (:name IS NULL OR p.name LIKE %:name%)
-          AND (:minPrice IS NULL OR p.price >= :minPrice)
-          AND (:maxPrice IS NULL OR p.price <= :maxPrice)
-          AND (:minRating IS NULL OR p.rating >= :minRating)
-        """,
-            nativeQuery = true)
-    Page<Product> findAdvanced(
-            @Param("name") String name,
-            @Param("minPrice") BigDecimal minPrice,
-            @Param("maxPrice") BigDecimal maxPrice,
-            @Param("minRating") Double minRating,
-            Pageable pageable
-    );
+    interface IdAndName {
+        Long getId();
+
+        String getName();
+    }
+
+    interface IdAndSpecifications {
+        Long getId();
+
+        String getSpecifications();
+    }
+
+    interface IdAndText {
+        Long getId();
+
+        String getDescription();
+
+        String getSpecifications();
+    }
 }
@@ -0,0 +1,83 @@
+package dev.andresbonelli.productcomparisonapi.domain.repository;
+
+import dev.andresbonelli.productcomparisonapi.domain.entity.Product;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Query predicates for {@link ProductRepository}. Absent filters add no predicate at all, and present ones
+ * compare bare indexed columns ({@code price >= ?}, never {@code (? IS NULL OR price >= ?)}), so the
+ * optimizer can pick an index per filter combination: idx_product_price or idx_product_rating.
+ * <p>
+ * A name "contains" filter is {@code name_lower LIKE '%...%'}, which no index can seek: alone it scans,
+ * next to a price or rating range it is checked on the rows that range selects. ProductNameIndex answers
+ * most name filters before they get here.
+ */
+public final class ProductSpecifications {
+
+    // Not a backslash: MySQL string literals treat it as an escape themselves
+    private static final char LIKE_ESCAPE = '!';
+
+    private ProductSpecifications() {
+    }
+
+    /**
+     * The text with LIKE wildcards escaped, so % and _ in a name filter match themselves
+     */
+    static String escapeLike(String text) {
+        return text.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+
+    /**
+     * Products matching every given filter; null filters are left out
+     * @param name lower-cased name fragment
+     */
+    public static Specification<Product> matching(
+            String name, BigDecimal minPrice, BigDecimal maxPrice, Double minRating) {
+        List<Specification<Product>> filters = new ArrayList<>();
+        if (null != name) {
+            String pattern = "%" + escapeLike(name) + "%";
+            filters.add((root, query, cb) -> cb.like(root.get("nameLower"), pattern, LIKE_ESCAPE));
+        }
+        if (null != minPrice) {
+            filters.add((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("price"), minPrice));
+        }
+        if (null != maxPrice) {
+            filters.add((root, query, cb) -> cb.lessThanOrEqualTo(root.get("price"), maxPrice));
+        }
+        if (null != minRating) {
+            filters.add((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("rating"), minRating));
+        }
+        return Specification.allOf(filters);
+    }
+
+    public static Specification<Product> idIn(Collection<Long> ids) {
+        return (root, query, cb) -> root.get("id").in(ids);
+    }
+
+    /**
+     * Products after a keyset position in (sort column, id) order, both ascending or both descending:
+     * {@code key > :key OR (key = :key AND id > :id)}, a range seek on an index over (column, id)
+     * @param key value of the sort column at the position, of the column's type
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static Specification<Product> after(String sortBy, boolean descending, Comparable key, long id) {
+        return (root, query, cb) -> {
+            Path<Long> idPath = root.get("id");
+            Predicate idAfter = descending ? cb.lessThan(idPath, id) : cb.greaterThan(idPath, id);
+            if ("id".equals(sortBy)) {
+                return idAfter;
+            }
+            Expression<Comparable> column = root.get(sortBy);
+            Predicate keyAfter = descending ? cb.lessThan(column, key) : cb.greaterThan(column, key);
+            return cb.or(keyAfter, cb.and(cb.equal(column, key), idAfter));
+        };
+    }
+}
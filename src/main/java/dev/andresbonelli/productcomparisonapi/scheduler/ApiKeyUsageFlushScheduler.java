@@ -0,0 +1,18 @@
+package dev.andresbonelli.productcomparisonapi.scheduler;
+
+import dev.andresbonelli.productcomparisonapi.service.ApiKeyUsageTracker;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class ApiKeyUsageFlushScheduler {
+
+    private final ApiKeyUsageTracker usageTracker;
+
+    @Scheduled(fixedDelayString = "${app.api-keys.usage.flush-interval:30000}")
+    public void flushUsage() {
+        usageTracker.flush();
+    }
+}
@@ -0,0 +1,82 @@
+package dev.andresbonelli.productcomparisonapi.scheduler;
+
+import dev.andresbonelli.productcomparisonapi.service.ApiKeyService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Deactivates expired API keys and deletes them once the retention period has passed.
+ * Works in keyset-ordered chunks, one short transaction each, so the table is never locked for long.
+ */
+@Component
+@Slf4j
+public class ExpiredApiKeySweeper {
+
+    private final ApiKeyService apiKeyService;
+    private final int batchSize;
+    private final int retentionDays;
+    private final Counter deactivatedCounter;
+    private final Counter purgedCounter;
+    private final Timer sweepTimer;
+
+    public ExpiredApiKeySweeper(
+            ApiKeyService apiKeyService,
+            MeterRegistry meterRegistry,
+            @Value("${app.api-keys.sweeper.batch-size:500}") int batchSize,
+            @Value("${app.api-keys.sweeper.retention-days:30}") int retentionDays
+    ) {
+        this.apiKeyService = apiKeyService;
+        this.batchSize = batchSize;
+        this.retentionDays = retentionDays;
+        this.deactivatedCounter = Counter.builder("api_keys.sweeper.rows")
+                .tag("action", "deactivated")
+                .description("Expired API keys deactivated by the sweeper")
+                .register(meterRegistry);
+        this.purgedCounter = Counter.builder("api_keys.sweeper.rows")
+                .tag("action", "purged")
+                .description("Expired API keys deleted by the sweeper")
+                .register(meterRegistry);
+        this.sweepTimer = Timer.builder("api_keys.sweeper.duration")
+                .description("Duration of a complete expired API key sweep")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(
+            initialDelayString = "${app.api-keys.sweeper.interval:3600000}",
+            fixedDelayString = "${app.api-keys.sweeper.interval:3600000}"
+    )
+    public void sweep() {
+        sweepTimer.record(() -> {
+            LocalDateTime now = LocalDateTime.now();
+            long deactivated = runBatches(afterId -> apiKeyService.deactivateExpiredBatch(afterId, now, batchSize));
+            long purged = runBatches(afterId ->
+                    apiKeyService.purgeExpiredBatch(afterId, now.minusDays(retentionDays), batchSize));
+            deactivatedCounter.increment(deactivated);
+            purgedCounter.increment(purged);
+            log.info("Expired API key sweep complete. Deactivated: {}, purged: {}", deactivated, purged);
+        });
+    }
+
+    private long runBatches(Function<Long, List<Long>> batch) {
+        long processed = 0;
+        long afterId = 0;
+        List<Long> ids;
+        do {
+            ids = batch.apply(afterId);
+            processed += ids.size();
+            if (!ids.isEmpty()) {
+                afterId = ids.get(ids.size() - 1);
+            }
+        } while (ids.size() == batchSize);
+        return processed;
+    }
+}
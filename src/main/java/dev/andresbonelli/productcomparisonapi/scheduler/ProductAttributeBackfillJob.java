@@ -0,0 +1,44 @@
+package dev.andresbonelli.productcomparisonapi.scheduler;
+
+import dev.andresbonelli.productcomparisonapi.service.ProductAttributeService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Extracts attributes for products stored before the product_attribute table existed.
+ * Works in keyset-ordered chunks, one short transaction each, from a checkpoint kept in the database,
+ * so a restart resumes where the last run stopped. Once complete, every run is a single checkpoint read.
+ */
+@Component
+@Slf4j
+public class ProductAttributeBackfillJob {
+
+    private final ProductAttributeService attributeService;
+    private final int batchSize;
+
+    public ProductAttributeBackfillJob(
+            ProductAttributeService attributeService,
+            @Value("${app.attributes.backfill.batch-size:500}") int batchSize
+    ) {
+        this.attributeService = attributeService;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(
+            initialDelayString = "${app.attributes.backfill.initial-delay:10000}",
+            fixedDelayString = "${app.attributes.backfill.interval:3600000}"
+    )
+    public void run() {
+        long processed = 0;
+        int batch;
+        do {
+            batch = attributeService.backfillBatch(batchSize);
+            processed += batch;
+        } while (batch == batchSize);
+        if (processed > 0) {
+            log.info("Product attribute backfill run complete. Products processed: {}", processed);
+        }
+    }
+}
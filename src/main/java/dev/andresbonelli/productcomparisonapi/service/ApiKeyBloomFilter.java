@@ -0,0 +1,74 @@
+package dev.andresbonelli.productcomparisonapi.service;
+
+import dev.andresbonelli.productcomparisonapi.domain.repository.ApiKeyRepository;
+import dev.andresbonelli.productcomparisonapi.utils.BloomFilter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.stream.Stream;
+
+/**
+ * Bloom filter over every issued API key value.
+ * Lets the security filter reject unknown keys without touching the cache or the database.
+ * Until the initial load completes every key is reported as possibly known.
+ */
+@Component
+@Slf4j
+public class ApiKeyBloomFilter implements MeterBinder {
+
+    private final ApiKeyRepository repository;
+    private final BloomFilter filter;
+    private volatile boolean loaded;
+
+    public ApiKeyBloomFilter(
+            ApiKeyRepository repository,
+            @Value("${app.api-keys.bloom.expected-insertions:100000}") long expectedInsertions,
+            @Value("${app.api-keys.bloom.fpp:0.01}") double fpp
+    ) {
+        this.repository = repository;
+        this.filter = new BloomFilter(expectedInsertions, fpp);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        try (Stream<String> keyValues = repository.streamAllKeyValues()) {
+            keyValues.forEach(filter::put);
+        }
+        loaded = true;
+        log.info("API key bloom filter loaded. Keys: {}, bits: {}, expected fpp: {}",
+                filter.insertions(), filter.bitSize(), filter.expectedFpp());
+    }
+
+    public void add(String keyValue) {
+        filter.put(keyValue);
+    }
+
+    /**
+     * @return false only if the key was definitely never issued
+     */
+    public boolean mightContain(String keyValue) {
+        return !loaded || filter.mightContain(keyValue);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("api_keys.bloom.insertions", filter, BloomFilter::insertions)
+                .description("Key values added to the API key bloom filter")
+                .register(registry);
+        Gauge.builder("api_keys.bloom.bits", filter, BloomFilter::bitSize)
+                .description("Size of the API key bloom filter in bits")
+                .baseUnit("bits")
+                .register(registry);
+        Gauge.builder("api_keys.bloom.expected_fpp", filter, BloomFilter::expectedFpp)
+                .description("Expected false-positive rate at the current number of insertions")
+                .register(registry);
+    }
+}
@@ -0,0 +1,95 @@
+package dev.andresbonelli.productcomparisonapi.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import dev.andresbonelli.productcomparisonapi.domain.entity.ApiKey;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Bounded in-memory cache of API key lookups.
+ * Known keys are kept until they expire (capped by max-ttl), unknown keys are remembered for a short time.
+ */
+@Component
+public class ApiKeyCache {
+
+    private final Cache<String, Optional<ApiKey>> cache;
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public ApiKeyCache(
+            @Value("${app.api-keys.cache.max-size:10000}") long maxSize,
+            @Value("${app.api-keys.cache.max-ttl:10m}") Duration maxTtl,
+            @Value("${app.api-keys.cache.negative-ttl:30s}") Duration negativeTtl
+    ) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new KeyExpiry(maxTtl, negativeTtl))
+                .build();
+    }
+
+    /**
+     * Cached lookup, loading a miss with the given function. The load runs outside the cache: inside Caffeine's
+     * compute it would hold a map bin monitor during the database query and pin a virtual thread. A load that
+     * overlaps an invalidation is returned but not kept.
+     */
+    public Optional<ApiKey> get(String keyValue, Function<String, Optional<ApiKey>> loader) {
+        Optional<ApiKey> cached = cache.getIfPresent(keyValue);
+        if (null != cached) {
+            return cached;
+        }
+        long seen = invalidations.get();
+        Optional<ApiKey> loaded = loader.apply(keyValue);
+        cache.put(keyValue, loaded);
+        if (seen != invalidations.get()) {
+            cache.asMap().remove(keyValue, loaded);
+        }
+        return loaded;
+    }
+
+    public void invalidate(String keyValue) {
+        invalidations.incrementAndGet();
+        cache.invalidate(keyValue);
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    private record KeyExpiry(Duration maxTtl, Duration negativeTtl) implements Expiry<String, Optional<ApiKey>> {
+
+        @Override
+        public long expireAfterCreate(String key, Optional<ApiKey> value, long currentTime) {
+            if (value.isEmpty() || !value.get().isActive()) {
+                return negativeTtl.toNanos();
+            }
+            LocalDateTime expiresAt = value.get().getExpiresAt();
+            if (null == expiresAt) {
+                return maxTtl.toNanos();
+            }
+            Duration remaining = Duration.between(LocalDateTime.now(), expiresAt);
+            if (remaining.isNegative()) {
+                return 0;
+            }
+            return Math.min(remaining.toNanos(), maxTtl.toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(
+                String key, Optional<ApiKey> value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(
+                String key, Optional<ApiKey> value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
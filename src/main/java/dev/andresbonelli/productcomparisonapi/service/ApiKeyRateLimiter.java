@@ -0,0 +1,77 @@
+package dev.andresbonelli.productcomparisonapi.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.andresbonelli.productcomparisonapi.domain.entity.ApiKey;
+import dev.andresbonelli.productcomparisonapi.domain.entity.Role;
+import dev.andresbonelli.productcomparisonapi.utils.TokenBucket;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Holds the rate limit buckets: one per API key, sized by the key's role, and one per IP for requests
+ * without a valid key. Buckets live apart from the key validation cache, so reloading or evicting a cached
+ * key does not refill its quota.
+ */
+@Component
+public class ApiKeyRateLimiter {
+
+    private final boolean enabled;
+    private final Duration period;
+    private final Map<Role, Long> capacities = new EnumMap<>(Role.class);
+    private final long anonymousCapacity;
+    private final Cache<Long, TokenBucket> keyBuckets;
+    private final Cache<String, TokenBucket> anonymousBuckets;
+
+    public ApiKeyRateLimiter(
+            @Value("${bucket4j.enabled:true}") boolean enabled,
+            @Value("${app.rate-limit.period:1m}") Duration period,
+            @Value("${app.rate-limit.capacity.root:1000}") long rootCapacity,
+            @Value("${app.rate-limit.capacity.admin:300}") long adminCapacity,
+            @Value("${app.rate-limit.capacity.user:60}") long userCapacity,
+            @Value("${app.rate-limit.capacity.anonymous:10}") long anonymousCapacity,
+            @Value("${app.rate-limit.anonymous.max-addresses:100000}") long maxAddresses,
+            @Value("${app.rate-limit.max-keys:100000}") long maxKeys
+    ) {
+        this.enabled = enabled;
+        this.period = period;
+        this.anonymousCapacity = anonymousCapacity;
+        // A key or address idle for a whole period would be back to a full bucket anyway
+        this.keyBuckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(period)
+                .build();
+        this.anonymousBuckets = Caffeine.newBuilder()
+                .maximumSize(maxAddresses)
+                .expireAfterAccess(period)
+                .build();
+        capacities.put(Role.ROOT, rootCapacity);
+        capacities.put(Role.ADMIN, adminCapacity);
+        capacities.put(Role.USER, userCapacity);
+    }
+
+    /**
+     * @return the bucket of an authenticated key, sized by its role, or null if rate limiting is disabled
+     */
+    public TokenBucket keyBucket(ApiKey apiKey) {
+        if (!enabled) {
+            return null;
+        }
+        return keyBuckets.get(apiKey.getId(), id -> new TokenBucket(capacities.get(apiKey.getRole()), period));
+    }
+
+    /**
+     * @return the shared bucket of requests from the address that no valid key authenticated,
+     * or null if rate limiting is disabled
+     */
+    public TokenBucket anonymousBucket(String remoteAddress) {
+        if (!enabled) {
+            return null;
+        }
+        return anonymousBuckets.get(remoteAddress, address -> new TokenBucket(anonymousCapacity, period));
+    }
+}
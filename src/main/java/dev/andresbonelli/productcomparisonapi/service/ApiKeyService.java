@@ -3,13 +3,19 @@ package dev.andresbonelli.productcomparisonapi.service;
 import dev.andresbonelli.productcomparisonapi.api.dto.ApiKeyDTO;
 import dev.andresbonelli.productcomparisonapi.domain.entity.ApiKey;
 import dev.andresbonelli.productcomparisonapi.domain.entity.Role;
+import dev.andresbonelli.productcomparisonapi.domain.exception.ResourceNotFoundException;
 import dev.andresbonelli.productcomparisonapi.domain.repository.ApiKeyRepository;
 import dev.andresbonelli.productcomparisonapi.utils.ApiKeyUtils;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Service
@@ -17,16 +23,60 @@ import java.util.Optional;
 public class ApiKeyService {
 
     private final ApiKeyRepository repository;
+    private final ApiKeyCache cache;
+    private final ApiKeyBloomFilter bloomFilter;
 
     @Value("${app.api-keys.days-valid-user:30}")
     private int userApiKeyDaysValid;
 
     public Optional<ApiKey> validate(String keyValue) {
-        return repository.findByKeyValue(keyValue)
+        return cache.get(keyValue, repository::findByKeyValue)
                 .filter(ApiKey::isActive)
                 .filter(key -> null == key.getExpiresAt() || key.getExpiresAt().isAfter(LocalDateTime.now()));
     }
 
+    /**
+     * Deactivate an existing API key and drop it from the validation cache
+     * @throws ResourceNotFoundException if the key does not exist
+     */
+    @Transactional
+    public void deactivate(String keyValue) {
+        ApiKey apiKey = repository.findByKeyValue(keyValue)
+                .orElseThrow(() -> new ResourceNotFoundException("API key not found"));
+        apiKey.setActive(false);
+        repository.save(apiKey);
+        invalidateAfterCommit(List.of(keyValue));
+    }
+
+    /**
+     * Deactivate one chunk of expired keys, starting after the given id
+     * @return the ids of the deactivated keys, in ascending order
+     */
+    @Transactional
+    public List<Long> deactivateExpiredBatch(Long afterId, LocalDateTime now, int batchSize) {
+        List<ApiKey> expired = repository.findExpiredActiveAfter(afterId, now, PageRequest.ofSize(batchSize));
+        if (expired.isEmpty()) {
+            return List.of();
+        }
+        List<Long> ids = expired.stream().map(ApiKey::getId).toList();
+        repository.deactivateAllByIdIn(ids);
+        invalidateAfterCommit(expired.stream().map(ApiKey::getKeyValue).toList());
+        return ids;
+    }
+
+    /**
+     * Delete one chunk of inactive keys that expired before the cutoff, starting after the given id
+     * @return the ids of the deleted keys, in ascending order
+     */
+    @Transactional
+    public List<Long> purgeExpiredBatch(Long afterId, LocalDateTime cutoff, int batchSize) {
+        List<Long> ids = repository.findPurgeableIdsAfter(afterId, cutoff, PageRequest.ofSize(batchSize));
+        if (!ids.isEmpty()) {
+            repository.deleteAllByIdIn(ids);
+        }
+        return ids;
+    }
+
     public ApiKeyDTO createUserApiKey() {
         var apiKey = createApiKey(Role.USER, userApiKeyDaysValid);
         return toDTO(apiKey);
@@ -46,7 +96,27 @@ public class ApiKeyService {
         apiKey.setExpiresAt(null != daysValid ? LocalDateTime.now().plusDays(daysValid) : null);
         apiKey.setActive(true);
 
-        return repository.save(apiKey);
+        ApiKey saved = repository.save(apiKey);
+        bloomFilter.add(newApiKey);
+        cache.invalidate(newApiKey);
+        return saved;
+    }
+
+    /**
+     * Drop the keys from the validation cache once the transaction has committed. Before that, a concurrent
+     * validate would read the still-active row again and cache it for up to max-ttl.
+     */
+    private void invalidateAfterCommit(List<String> keyValues) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            keyValues.forEach(cache::invalidate);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                keyValues.forEach(cache::invalidate);
+            }
+        });
     }
 
     private ApiKeyDTO toDTO(ApiKey apiKey) {
@@ -0,0 +1,99 @@
+package dev.andresbonelli.productcomparisonapi.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind request counters per API key.
+ * Requests only touch in-memory counters; {@link #flush()} writes the accumulated deltas in one JDBC batch.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ApiKeyUsageTracker {
+
+    private static final String UPDATE_USAGE =
+            "UPDATE api_key SET request_count = request_count + ?, last_used_at = ? WHERE id = ?";
+    private static final long RETIRED = -1;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<Long, Usage> usages = new ConcurrentHashMap<>();
+    // Not synchronized: a virtual thread blocked on JDBC inside a monitor pins its carrier thread
+    private final Lock flushLock = new ReentrantLock();
+
+    public void record(Long apiKeyId) {
+        while (true) {
+            Usage usage = usages.computeIfAbsent(apiKeyId, id -> new Usage());
+            if (usage.increment()) {
+                usage.lastUsedAt = System.currentTimeMillis();
+                return;
+            }
+            // Retired by flush between the lookup and the increment: count on a fresh one
+            usages.remove(apiKeyId, usage);
+        }
+    }
+
+    /**
+     * Write pending counts to the api_key table
+     * @return number of keys updated
+     */
+    public int flush() {
+        flushLock.lock();
+        try {
+            List<Object[]> batch = new ArrayList<>();
+            usages.forEach((id, usage) -> {
+                long count = usage.count.getAndSet(0);
+                if (count > 0) {
+                    batch.add(new Object[]{count, new Timestamp(usage.lastUsedAt), id});
+                } else if (usage.count.compareAndSet(0, RETIRED)) {
+                    // Idle key: drop it so the map only holds recently used keys
+                    usages.remove(id, usage);
+                }
+            });
+            if (!batch.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPDATE_USAGE, batch);
+                log.debug("Flushed usage for {} API keys", batch.size());
+            }
+            return batch.size();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        int flushed = flush();
+        log.info("Final API key usage flush. Keys updated: {}", flushed);
+    }
+
+    /**
+     * Pending count of one key; {@link #RETIRED} once flush has dropped it, so no increment is lost on it
+     */
+    private static final class Usage {
+        private final AtomicLong count = new AtomicLong();
+        private volatile long lastUsedAt;
+
+        boolean increment() {
+            long current;
+            do {
+                current = count.get();
+                if (RETIRED == current) {
+                    return false;
+                }
+            } while (!count.compareAndSet(current, current + 1));
+            return true;
+        }
+    }
+}
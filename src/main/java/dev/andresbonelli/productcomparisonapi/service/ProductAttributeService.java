@@ -0,0 +1,174 @@
+package dev.andresbonelli.productcomparisonapi.service;
+
+import dev.andresbonelli.productcomparisonapi.api.dto.AttributeFilter;
+import dev.andresbonelli.productcomparisonapi.domain.entity.Product;
+import dev.andresbonelli.productcomparisonapi.domain.repository.ProductAttributeRepository;
+import dev.andresbonelli.productcomparisonapi.domain.repository.ProductRepository;
+import dev.andresbonelli.productcomparisonapi.utils.SortedIds;
+import dev.andresbonelli.productcomparisonapi.utils.SpecificationParser;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the product_attribute side table in sync with product specifications
+ * and resolves attribute filters to product ids.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional(readOnly = true)
+public class ProductAttributeService {
+
+    // Outside the range of DECIMAL(19, 4)
+    private static final BigDecimal LOWEST = new BigDecimal("-1E15");
+    private static final BigDecimal HIGHEST = new BigDecimal("1E15");
+    // One unit in the last stored digit: turns strict bounds into inclusive ones
+    private static final BigDecimal STEP = BigDecimal.ONE.movePointLeft(SpecificationParser.MEASURE_SCALE);
+    private static final int NAME_LENGTH = 100;
+    private static final int TEXT_VALUE_LENGTH = 255;
+
+    private static final String INSERT_ATTRIBUTE = "INSERT INTO product_attribute "
+            + "(product_id, name, text_value, numeric_value, unit) VALUES (?, ?, ?, ?, ?)";
+    private static final String SELECT_BACKFILL =
+            "SELECT last_product_id, completed_at FROM product_attribute_backfill WHERE id = 1 FOR UPDATE";
+    private static final String UPDATE_BACKFILL =
+            "UPDATE product_attribute_backfill SET last_product_id = ?, completed_at = ? WHERE id = 1";
+
+    private final ProductAttributeRepository attributeRepository;
+    private final ProductRepository productRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Replace the stored attributes of a product with the ones parsed from its specifications
+     */
+    @Transactional
+    public void replaceAttributes(Long productId, String specifications) {
+        attributeRepository.deleteByProductId(productId);
+        List<Object[]> rows = new ArrayList<>();
+        addRows(rows, productId, specifications);
+        insert(rows);
+    }
+
+    /**
+     * Store the attributes of newly inserted products, which have none yet, in one batch
+     */
+    @Transactional
+    public void insertAttributes(List<Product> products) {
+        List<Object[]> rows = new ArrayList<>();
+        for (Product product : products) {
+            addRows(rows, product.getId(), product.getSpecifications());
+        }
+        insert(rows);
+    }
+
+    @Transactional
+    public void deleteAttributes(Long productId) {
+        attributeRepository.deleteByProductId(productId);
+    }
+
+    @Transactional
+    public void deleteAll() {
+        jdbcTemplate.execute("TRUNCATE TABLE product_attribute");
+    }
+
+    /**
+     * Ascending ids of the products matching every filter, each resolved with an index range scan
+     */
+    public long[] findProductIds(List<AttributeFilter> filters) {
+        long[] result = null;
+        for (AttributeFilter filter : filters) {
+            result = SortedIds.intersect(result, SortedIds.of(find(filter)));
+            if (result.length == 0) {
+                break;
+            }
+        }
+        return null == result ? new long[0] : result;
+    }
+
+    /**
+     * Extract attributes for the next products after the saved checkpoint and move the checkpoint,
+     * so an interrupted backfill resumes where it stopped. Products written since extraction on write
+     * exists are processed again, which is harmless.
+     * @return products processed, 0 once the backfill is complete
+     */
+    @Transactional
+    public int backfillBatch(int batchSize) {
+        Map<String, Object> progress = jdbcTemplate.queryForMap(SELECT_BACKFILL);
+        if (null != progress.get("completed_at")) {
+            return 0;
+        }
+        long afterId = ((Number) progress.get("last_product_id")).longValue();
+        List<ProductRepository.IdAndSpecifications> products =
+                productRepository.findSpecificationsAfter(afterId, PageRequest.ofSize(batchSize));
+        if (products.isEmpty()) {
+            jdbcTemplate.update(UPDATE_BACKFILL, afterId, Timestamp.valueOf(LocalDateTime.now()));
+            log.info("Product attribute backfill complete");
+            return 0;
+        }
+        List<Object[]> rows = new ArrayList<>();
+        for (ProductRepository.IdAndSpecifications product : products) {
+            addRows(rows, product.getId(), product.getSpecifications());
+        }
+        attributeRepository.deleteByProductIdIn(
+                products.stream().map(ProductRepository.IdAndSpecifications::getId).toList());
+        insert(rows);
+        jdbcTemplate.update(UPDATE_BACKFILL, products.get(products.size() - 1).getId(), null);
+        return products.size();
+    }
+
+    private List<Long> find(AttributeFilter filter) {
+        BigDecimal min = switch (filter.operator()) {
+            case EQ, GTE -> filter.value();
+            case GT -> filter.value().add(STEP);
+            case LT, LTE -> LOWEST;
+        };
+        BigDecimal max = switch (filter.operator()) {
+            case EQ, LTE -> filter.value();
+            case LT -> filter.value().subtract(STEP);
+            case GT, GTE -> HIGHEST;
+        };
+        return null == filter.unit()
+                ? attributeRepository.findProductIdsInRangeAnyUnit(filter.name(), min, max)
+                : attributeRepository.findProductIdsInRange(filter.name(), filter.unit(), min, max);
+    }
+
+    /**
+     * Parse the specifications into insert parameters for {@link #INSERT_ATTRIBUTE}
+     */
+    private static void addRows(List<Object[]> rows, Long productId, String specifications) {
+        for (SpecificationParser.Attribute attribute : SpecificationParser.parse(specifications)) {
+            SpecificationParser.Measure measure = attribute.measure();
+            rows.add(new Object[]{
+                    productId,
+                    truncate(attribute.name(), NAME_LENGTH),
+                    truncate(attribute.value(), TEXT_VALUE_LENGTH),
+                    null == measure ? null : measure.value(),
+                    null == measure ? null : measure.unit()
+            });
+        }
+    }
+
+    private static String truncate(String value, int length) {
+        return value.length() > length ? value.substring(0, length) : value;
+    }
+
+    /**
+     * Insert all rows in one JDBC batch
+     */
+    private void insert(List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_ATTRIBUTE, rows);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package dev.andresbonelli.productcomparisonapi.service;
+
+import dev.andresbonelli.productcomparisonapi.api.dto.ProductDTO;
+import dev.andresbonelli.productcomparisonapi.api.dto.ProductFields;
+import dev.andresbonelli.productcomparisonapi.domain.repository.ProductRepository;
+import dev.andresbonelli.productcomparisonapi.domain.repository.ProductSpecifications;
+import dev.andresbonelli.productcomparisonapi.utils.ProductMapper;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Reads products by id from the database in IN lists of at most app.compare.chunk-size ids, so long id lists
+ * neither build huge statements nor run as one slow query. Above one chunk, the chunks are read in parallel on
+ * the application task executor, each with its own connection.
+ */
+@Component
+public class ProductBatchLoader {
+
+    private final ProductRepository productRepository;
+    private final ProductMapper productMapper;
+    private final AsyncTaskExecutor executor;
+    private final int chunkSize;
+    private final int maxIds;
+
+    public ProductBatchLoader(
+            ProductRepository productRepository,
+            ProductMapper productMapper,
+            @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) AsyncTaskExecutor executor,
+            @Value("${app.compare.chunk-size:100}") int chunkSize,
+            @Value("${app.compare.max-ids:1000}") int maxIds
+    ) {
+        this.productRepository = productRepository;
+        this.productMapper = productMapper;
+        this.executor = executor;
+        this.chunkSize = chunkSize;
+        this.maxIds = maxIds;
+    }
+
+    /**
+     * The existing products among the ids, in no particular order
+     * @param ids distinct ids
+     * @param fields properties to read; columns left out are not selected
+     * @throws IllegalArgumentException if there are more than app.compare.max-ids ids
+     */
+    public List<ProductDTO> load(List<Long> ids, ProductFields fields) {
+        checkSize(ids.size());
+        if (ids.size() <= chunkSize) {
+            return fetch(ids, fields);
+        }
+
+        List<CompletableFuture<List<ProductDTO>>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+            chunks.add(executor.submitCompletable(() -> fetch(chunk, fields)));
+        }
+        List<ProductDTO> products = new ArrayList<>(ids.size());
+        try {
+            for (CompletableFuture<List<ProductDTO>> chunk : chunks) {
+                products.addAll(chunk.join());
+            }
+        } catch (CompletionException e) {
+            chunks.forEach(chunk -> chunk.cancel(false));
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return products;
+    }
+
+    /**
+     * @throws IllegalArgumentException if more than app.compare.max-ids distinct ids are requested at once,
+     * whichever source then serves them
+     */
+    public void checkSize(int distinctIds) {
+        if (distinctIds > maxIds) {
+            throw new IllegalArgumentException("At most " + maxIds + " distinct IDs can be requested at once");
+        }
+    }
+
+    private List<ProductDTO> fetch(Collection<Long> ids, ProductFields fields) {
+        if (fields.isAll()) {
+            return productMapper.toDTOList(productRepository.findAllById(ids));
+        }
+        return productMapper.toDTOList(productRepository.findAllWithAttributes(
+                ProductSpecifications.idIn(ids), fields.names(), Sort.unsorted(), 0, ids.size()));
+    }
+}
@@ -0,0 +1,90 @@
+package dev.andresbonelli.productcomparisonapi.service;
+
+import dev.andresbonelli.productcomparisonapi.api.dto.ComparisonMatrix;
+import dev.andresbonelli.productcomparisonapi.api.dto.PagedProducts;
+import dev.andresbonelli.productcomparisonapi.api.dto.ProductDTO;
+import dev.andresbonelli.productcomparisonapi.config.CacheConfig;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Keeps the product caches in line with catalog writes, touching only the entries a write affects.
+ * Runs after the write transaction commits so readers never re-cache uncommitted state.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductCacheInvalidator {
+
+    private final CacheManager cacheManager;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(ProductChangedEvent.DERIVED_STATE_ORDER)
+    public void onProductChanged(ProductChangedEvent event) {
+        Cache productCache = cache(CacheConfig.PRODUCT_CACHE);
+        Cache pagesCache = cache(CacheConfig.PRODUCTS_CACHE);
+        Cache comparisonCache = cache(CacheConfig.COMPARISON_CACHE);
+        // Any write can move a product into or out of a search result
+        cache(CacheConfig.SEARCH_CACHE).clear();
+
+        switch (event.type()) {
+            case UPDATED -> {
+                productCache.put(event.productId(), new VersionedProduct(event.product(), event.version()));
+                // Ordering and totals are unchanged, only pages holding this product are stale
+                int evicted = evictPagesContaining(pagesCache, event.productId());
+                int comparisons = evictComparisonsContaining(comparisonCache, event.productId());
+                log.debug("Product {} updated. Evicted {} cached pages and {} comparisons",
+                        event.productId(), evicted, comparisons);
+            }
+            case CREATED -> {
+                productCache.put(event.productId(), new VersionedProduct(event.product(), event.version()));
+                // Every cached page embeds the total element count
+                pagesCache.clear();
+            }
+            case DELETED -> {
+                productCache.evict(event.productId());
+                pagesCache.clear();
+                evictComparisonsContaining(comparisonCache, event.productId());
+            }
+            case RESET -> {
+                productCache.clear();
+                pagesCache.clear();
+                comparisonCache.clear();
+            }
+        }
+    }
+
+    private int evictPagesContaining(Cache pagesCache, Long productId) {
+        Map<Object, Object> entries = nativeMap(pagesCache);
+        int before = entries.size();
+        entries.values().removeIf(value -> value instanceof PagedProducts<?> paged
+                && paged.products().stream()
+                        .anyMatch(p -> p instanceof ProductDTO dto && Objects.equals(dto.id(), productId)));
+        return before - entries.size();
+    }
+
+    private int evictComparisonsContaining(Cache comparisonCache, Long productId) {
+        Map<Object, Object> entries = nativeMap(comparisonCache);
+        int before = entries.size();
+        entries.values().removeIf(value -> value instanceof ComparisonMatrix matrix
+                && matrix.products().stream().anyMatch(dto -> Objects.equals(dto.id(), productId)));
+        return before - entries.size();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<Object, Object> nativeMap(Cache cache) {
+        return ((com.github.benmanes.caffeine.cache.Cache<Object, Object>) cache.getNativeCache()).asMap();
+    }
+
+    private Cache cache(String name) {
+        return Objects.requireNonNull(cacheManager.getCache(name), "Cache region not configured: " + name);
+    }
+}
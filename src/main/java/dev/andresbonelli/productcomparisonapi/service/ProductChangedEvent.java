@@ -0,0 +1,42 @@
+package dev.andresbonelli.productcomparisonapi.service;
+
+import dev.andresbonelli.productcomparisonapi.api.dto.ProductDTO;
+
+/**
+ * Published by {@link ProductService} for every catalog write.
+ * Listeners that keep derived state (caches, indexes) react to it once the transaction has committed,
+ * ordered at {@link #DERIVED_STATE_ORDER}.
+ *
+ * @param productId null for {@link Type#RESET}
+ * @param product the stored product for {@link Type#CREATED} and {@link Type#UPDATED}, null otherwise
+ * @param version version of the stored product, null when there is no product
+ */
+public record ProductChangedEvent(Type type, Long productId, ProductDTO product, Long version) {
+
+    /**
+     * Order of the listeners refreshing derived state; the catalog version moves on only after all of them
+     */
+    public static final int DERIVED_STATE_ORDER = 0;
+
+    public enum Type {
+        CREATED, UPDATED, DELETED,
+        /** The whole catalog was replaced */
+        RESET
+    }
+
+    public static ProductChangedEvent created(ProductDTO product, Long version) {
+        return new ProductChangedEvent(Type.CREATED, product.id(), product, version);
+    }
+
+    public static ProductChangedEvent updated(ProductDTO product, Long version) {
+        return new ProductChangedEvent(Type.UPDATED, product.id(), product, version);
+    }
+
+    public static ProductChangedEvent deleted(Long productId) {
+        return new ProductChangedEvent(Type.DELETED, productId, null, null);
+    }
+
+    public static ProductChangedEvent reset() {
+        return new ProductChangedEvent(Type.RESET, null, null, null);
+    }
+}
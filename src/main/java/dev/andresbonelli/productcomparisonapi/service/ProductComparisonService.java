@@ -0,0 +1,122 @@
+package dev.andresbonelli.productcomparisonapi.service;
+
+import dev.andresbonelli.productcomparisonapi.api.dto.ComparisonMatrix;
+import dev.andresbonelli.productcomparisonapi.api.dto.ProductDTO;
+import dev.andresbonelli.productcomparisonapi.config.CacheConfig;
+import dev.andresbonelli.productcomparisonapi.utils.SpecificationParser;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Builds comparison matrices: the specification attributes of several products aligned by name,
+ * with the best and worst value marked for every attribute that can be compared numerically.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductComparisonService {
+
+    /** Units where the smallest value wins; for every other unit bigger is better */
+    private static final Set<String> LOWER_IS_BETTER = Set.of("kg");
+
+    private final ProductService productService;
+
+    /**
+     * Comparison matrix of the products, cached per set of ids until one of them changes
+     * @param ids ascending distinct product ids
+     * @throws IllegalArgumentException if there are more than app.compare.max-ids
+     * @throws dev.andresbonelli.productcomparisonapi.domain.exception.ResourceNotFoundException if any is missing
+     */
+    @Cacheable(value = CacheConfig.COMPARISON_CACHE,
+            key = "T(dev.andresbonelli.productcomparisonapi.api.dto.ComparisonMatrix).key(#ids)")
+    public ComparisonMatrix compare(List<Long> ids) {
+        log.info("Building comparison matrix. IDs: {}", ids);
+        List<ProductDTO> products = new ArrayList<>(productService.getProductsByIds(ids));
+        products.sort((a, b) -> Long.compare(a.id(), b.id()));
+        return build(products);
+    }
+
+    static ComparisonMatrix build(List<ProductDTO> products) {
+        // Attribute name -> parsed attribute per product column, in order of first appearance
+        Map<String, SpecificationParser.Attribute[]> columns = new LinkedHashMap<>();
+        for (int i = 0; i < products.size(); i++) {
+            for (SpecificationParser.Attribute attribute : SpecificationParser.parse(products.get(i).specifications())) {
+                columns.computeIfAbsent(attribute.name(), name -> new SpecificationParser.Attribute[products.size()])
+                        [i] = attribute;
+            }
+        }
+        List<String> shared = new ArrayList<>();
+        List<ComparisonMatrix.Row> rows = new ArrayList<>(columns.size());
+        columns.forEach((name, attributes) -> {
+            if (Arrays.stream(attributes).allMatch(Objects::nonNull)) {
+                shared.add(name);
+            }
+            rows.add(row(name, attributes, products));
+        });
+        return new ComparisonMatrix(List.copyOf(products), shared, rows);
+    }
+
+    /**
+     * A row is comparable when at least two products have a measure, all in the same base unit
+     */
+    private static ComparisonMatrix.Row row(
+            String name, SpecificationParser.Attribute[] attributes, List<ProductDTO> products) {
+        List<String> values = new ArrayList<>(attributes.length);
+        String unit = null;
+        boolean comparable = true;
+        int measured = 0;
+        BigDecimal best = null;
+        BigDecimal worst = null;
+        for (SpecificationParser.Attribute attribute : attributes) {
+            values.add(null == attribute ? null : attribute.value());
+            SpecificationParser.Measure measure = null == attribute ? null : attribute.measure();
+            if (null == measure) {
+                continue;
+            }
+            if (null != unit && !unit.equals(measure.unit())) {
+                comparable = false;
+            }
+            unit = measure.unit();
+            measured++;
+            BigDecimal value = measure.value();
+            boolean lowerWins = LOWER_IS_BETTER.contains(unit);
+            if (null == best || (lowerWins ? value.compareTo(best) < 0 : value.compareTo(best) > 0)) {
+                best = value;
+            }
+            if (null == worst || (lowerWins ? value.compareTo(worst) > 0 : value.compareTo(worst) < 0)) {
+                worst = value;
+            }
+        }
+        if (!comparable || measured < 2) {
+            return new ComparisonMatrix.Row(name, values, null, List.of(), List.of());
+        }
+        if (best.compareTo(worst) == 0) {
+            return new ComparisonMatrix.Row(name, values, unit, List.of(), List.of());
+        }
+        return new ComparisonMatrix.Row(name, values, unit,
+                idsWith(best, attributes, products), idsWith(worst, attributes, products));
+    }
+
+    private static List<Long> idsWith(
+            BigDecimal value, SpecificationParser.Attribute[] attributes, List<ProductDTO> products) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < attributes.length; i++) {
+            if (null != attributes[i] && null != attributes[i].measure()
+                    && attributes[i].measure().value().compareTo(value) == 0) {
+                ids.add(products.get(i).id());
+            }
+        }
+        return ids;
+    }
+}
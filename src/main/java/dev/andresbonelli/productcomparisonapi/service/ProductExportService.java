@@ -0,0 +1,120 @@
+package dev.andresbonelli.productcomparisonapi.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import dev.andresbonelli.productcomparisonapi.api.dto.ExportFormat;
+import dev.andresbonelli.productcomparisonapi.api.dto.ProductDTO;
+import dev.andresbonelli.productcomparisonapi.api.dto.ProductFields;
+import dev.andresbonelli.productcomparisonapi.domain.entity.Product;
+import dev.andresbonelli.productcomparisonapi.utils.Csv;
+import dev.andresbonelli.productcomparisonapi.utils.ProductMapper;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Streams the whole catalog in id order with constant memory: rows come from a forward-only cursor
+ * (app.export.fetch-size rows per round trip), each entity is detached once written, and output is
+ * flushed through a fixed-size buffer.
+ */
+@Service
+@Slf4j
+public class ProductExportService {
+
+    private final EntityManager entityManager;
+    private final ProductMapper productMapper;
+    private final ObjectWriter jsonWriter;
+    private final int fetchSize;
+
+    public ProductExportService(
+            EntityManager entityManager,
+            ProductMapper productMapper,
+            ObjectMapper objectMapper,
+            @Value("${app.export.fetch-size:1000}") int fetchSize
+    ) {
+        this.entityManager = entityManager;
+        this.productMapper = productMapper;
+        // Flushing after every product would send one tiny chunk per row
+        this.jsonWriter = objectMapper.writerFor(ProductDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Write every product to the output, which is flushed but left open
+     * @return number of products written
+     */
+    @Transactional(readOnly = true)
+    public long export(ExportFormat format, OutputStream out) throws IOException {
+        long started = System.nanoTime();
+        long written;
+        try (Stream<Product> products = entityManager
+                .createQuery("SELECT p FROM Product p ORDER BY p.id", Product.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()) {
+            Iterator<ProductDTO> rows = products.map(this::detached).iterator();
+            written = ExportFormat.CSV == format ? writeCsv(rows, out) : writeNdjson(rows, out);
+        }
+        log.info("Exported {} products as {} in {} ms", written, format, (System.nanoTime() - started) / 1_000_000);
+        return written;
+    }
+
+    private ProductDTO detached(Product product) {
+        ProductDTO dto = productMapper.toDTO(product);
+        // Keep the persistence context empty so memory does not grow with the catalog
+        entityManager.detach(product);
+        return dto;
+    }
+
+    private long writeNdjson(Iterator<ProductDTO> rows, OutputStream out) throws IOException {
+        long written = 0;
+        try (JsonGenerator generator = jsonWriter.createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            // Lines end with '\n' instead of the default space between root values
+            generator.setRootValueSeparator(null);
+            while (rows.hasNext()) {
+                jsonWriter.writeValue(generator, rows.next());
+                generator.writeRaw('\n');
+                written++;
+            }
+        }
+        return written;
+    }
+
+    private long writeCsv(Iterator<ProductDTO> rows, OutputStream out) throws IOException {
+        long written = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        Csv.writeRecord(writer, ProductFields.PROPERTIES);
+        while (rows.hasNext()) {
+            ProductDTO product = rows.next();
+            Csv.writeRecord(writer, Arrays.asList(
+                    String.valueOf(product.id()),
+                    product.name(),
+                    product.imageUrl(),
+                    product.description(),
+                    product.price().toPlainString(),
+                    String.valueOf(product.rating()),
+                    product.specifications()
+            ));
+            written++;
+        }
+        writer.flush();
+        return written;
+    }
+}
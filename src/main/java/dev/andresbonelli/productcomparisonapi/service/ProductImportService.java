@@ -0,0 +1,220 @@
+package dev.andresbonelli.productcomparisonapi.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import dev.andresbonelli.productcomparisonapi.api.dto.ExportFormat;
+import dev.andresbonelli.productcomparisonapi.api.dto.ImportReport;
+import dev.andresbonelli.productcomparisonapi.api.dto.ProductDTO;
+import dev.andresbonelli.productcomparisonapi.api.dto.ProductFields;
+import dev.andresbonelli.productcomparisonapi.domain.entity.Product;
+import dev.andresbonelli.productcomparisonapi.utils.Csv;
+import dev.andresbonelli.productcomparisonapi.utils.ProductMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk product import from NDJSON or CSV. Rows are parsed and validated one at a time as the body streams in,
+ * then stored app.import.batch-size at a time, each batch in one JDBC batch and its own transaction.
+ * Invalid rows are skipped and reported; a batch the database rejects is reported row by row and the
+ * import goes on with the next one.
+ */
+@Service
+@Slf4j
+public class ProductImportService {
+
+    private static final String BATCH_REJECTED =
+            "Batch rejected by the database; no product of this batch was stored";
+    private static final List<String> REQUIRED_COLUMNS =
+            ProductFields.PROPERTIES.stream().filter(name -> !"id".equals(name)).toList();
+
+    private final ProductService productService;
+    private final ProductMapper productMapper;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectReader jsonReader;
+    private final int batchSize;
+    private final int maxReportedErrors;
+
+    public ProductImportService(
+            ProductService productService,
+            ProductMapper productMapper,
+            Validator validator,
+            ApplicationEventPublisher eventPublisher,
+            ObjectMapper objectMapper,
+            @Value("${app.import.batch-size:500}") int batchSize,
+            @Value("${app.import.max-reported-errors:100}") int maxReportedErrors
+    ) {
+        this.productService = productService;
+        this.productMapper = productMapper;
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
+        this.jsonReader = objectMapper.readerFor(ProductDTO.class);
+        this.batchSize = batchSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    /**
+     * Store every valid product of the input as a new product; ids in the input are ignored
+     * @throws IllegalArgumentException if the CSV header is invalid or the input ends inside a quoted field
+     */
+    public ImportReport importProducts(ExportFormat format, InputStream in) throws IOException {
+        long started = System.nanoTime();
+        Run run = new Run();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        try {
+            if (ExportFormat.CSV == format) {
+                readCsv(reader, run);
+            } else {
+                readNdjson(reader, run);
+            }
+            run.flush();
+        } finally {
+            if (run.imported > 0) {
+                // One rebuild of caches and indexes instead of an event per product
+                eventPublisher.publishEvent(ProductChangedEvent.reset());
+            }
+        }
+        log.info("Imported {} of {} products in {} ms. Rejected: {}",
+                run.imported, run.rows, (System.nanoTime() - started) / 1_000_000, run.failed);
+        return new ImportReport(run.rows, run.imported, run.failed, run.errors);
+    }
+
+    private void readNdjson(BufferedReader reader, Run run) throws IOException {
+        for (String line = reader.readLine(); null != line; line = reader.readLine()) {
+            if (line.isBlank()) {
+                continue;
+            }
+            long row = ++run.rows;
+            try {
+                ProductDTO product = jsonReader.readValue(line);
+                if (null == product) {
+                    run.reject(row, "Expected a JSON object, found null");
+                } else {
+                    run.accept(row, product);
+                }
+            } catch (JsonProcessingException e) {
+                run.reject(row, "Invalid JSON: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    private void readCsv(BufferedReader reader, Run run) throws IOException {
+        List<String> header = Csv.readRecord(reader);
+        if (null == header) {
+            return;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).trim();
+            if (!ProductFields.PROPERTIES.contains(name)) {
+                throw new IllegalArgumentException(
+                        "Unknown CSV column '" + name + "'. Use any of " + ProductFields.PROPERTIES);
+            }
+            columns.put(name, i);
+        }
+        if (!columns.keySet().containsAll(REQUIRED_COLUMNS)) {
+            throw new IllegalArgumentException("The CSV header should name the columns " + REQUIRED_COLUMNS);
+        }
+
+        for (List<String> record = Csv.readRecord(reader); null != record; record = Csv.readRecord(reader)) {
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+            long row = ++run.rows;
+            if (record.size() != header.size()) {
+                run.reject(row, "Expected " + header.size() + " fields, found " + record.size());
+                continue;
+            }
+            try {
+                run.accept(row, new ProductDTO(
+                        null,
+                        record.get(columns.get("name")),
+                        record.get(columns.get("imageUrl")),
+                        record.get(columns.get("description")),
+                        new BigDecimal(record.get(columns.get("price")).trim()),
+                        Double.valueOf(record.get(columns.get("rating")).trim()),
+                        record.get(columns.get("specifications"))
+                ));
+            } catch (NumberFormatException e) {
+                run.reject(row, "price and rating should be numbers");
+            }
+        }
+    }
+
+    /**
+     * Progress of one import: the pending batch, counters and the reported errors
+     */
+    private final class Run {
+        private final List<Product> batch = new ArrayList<>(batchSize);
+        private final List<Long> batchRows = new ArrayList<>(batchSize);
+        private final List<ImportReport.RowError> errors = new ArrayList<>();
+        private long rows;
+        private long imported;
+        private long failed;
+
+        void accept(long row, ProductDTO product) {
+            Product entity = productMapper.toEntity(product);
+            entity.setId(null);
+            String violations = validator.validate(entity).stream()
+                    .sorted(Comparator.comparing(violation -> violation.getPropertyPath().toString()))
+                    .map(ProductImportService::describe)
+                    .collect(Collectors.joining("; "));
+            if (!violations.isEmpty()) {
+                reject(row, violations);
+                return;
+            }
+            batch.add(entity);
+            batchRows.add(row);
+            if (batch.size() == batchSize) {
+                flush();
+            }
+        }
+
+        void reject(long row, String message) {
+            failed++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new ImportReport.RowError(row, message));
+            }
+        }
+
+        void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                productService.insertProducts(batch);
+                imported += batch.size();
+            } catch (DataAccessException e) {
+                // The driver's message names tables and constraints; it stays in the log
+                log.warn("Import batch of {} products (rows {} to {}) rejected: {}", batch.size(),
+                        batchRows.get(0), batchRows.get(batchRows.size() - 1), e.getMostSpecificCause().getMessage());
+                batchRows.forEach(row -> reject(row, BATCH_REJECTED));
+            }
+            batch.clear();
+            batchRows.clear();
+        }
+    }
+
+    private static String describe(ConstraintViolation<Product> violation) {
+        return violation.getPropertyPath() + ": " + violation.getMessage();
+    }
+}
@@ -1,28 +1,65 @@
 package dev.andresbonelli.productcomparisonapi.service;
 
+import dev.andresbonelli.productcomparisonapi.api.dto.CursorPage;
+import dev.andresbonelli.productcomparisonapi.api.dto.PageCursor;
 import dev.andresbonelli.productcomparisonapi.api.dto.PagedProducts;
+import dev.andresbonelli.productcomparisonapi.api.dto.PartialProducts;
 import dev.andresbonelli.productcomparisonapi.api.dto.ProductDTO;
+import dev.andresbonelli.productcomparisonapi.api.dto.ProductFields;
+import dev.andresbonelli.productcomparisonapi.api.dto.ProductPatch;
 import dev.andresbonelli.productcomparisonapi.api.dto.ProductSearchCriteria;
+import dev.andresbonelli.productcomparisonapi.api.dto.TotalCount;
 import dev.andresbonelli.productcomparisonapi.config.CacheConfig;
 import dev.andresbonelli.productcomparisonapi.domain.entity.Product;
 import dev.andresbonelli.productcomparisonapi.domain.exception.ResourceNotFoundException;
 import dev.andresbonelli.productcomparisonapi.domain.repository.ProductRepository;
+import dev.andresbonelli.productcomparisonapi.domain.repository.ProductSpecifications;
+import dev.andresbonelli.productcomparisonapi.service.catalog.CatalogReadModel;
+import dev.andresbonelli.productcomparisonapi.service.catalog.ProductNameIndex;
+import dev.andresbonelli.productcomparisonapi.service.catalog.ProductTextIndex;
+import dev.andresbonelli.productcomparisonapi.utils.Bm25Index;
 import dev.andresbonelli.productcomparisonapi.utils.ProductMapper;
+import dev.andresbonelli.productcomparisonapi.utils.SortedIds;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Service for managing products
@@ -34,8 +71,21 @@ import java.util.List;
 @Transactional(readOnly = true)
 public class ProductService {
 
+    // name_lower is generated, so the columns are listed
+    private static final String INSERT_PRODUCT = "INSERT INTO product "
+            + "(name, image_url, description, price, rating, specifications) VALUES (?, ?, ?, ?, ?, ?)";
+
     private final ProductRepository productRepository;
     private final ProductMapper productMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CatalogReadModel catalogReadModel;
+    private final ProductNameIndex productNameIndex;
+    private final ProductTextIndex productTextIndex;
+    private final ProductAttributeService productAttributeService;
+    private final SearchCountCache searchCountCache;
+    private final ProductBatchLoader productBatchLoader;
+    private final JdbcTemplate jdbcTemplate;
+    private final Validator validator;
 
     @PersistenceContext
     private final EntityManager entityManager;
@@ -43,44 +93,235 @@ public class ProductService {
 
     /**
      * Get all products paginated
+     * @param fields properties to return; columns left out are not selected
      */
-    @Cacheable(value = CacheConfig.PRODUCTS_CACHE, key = "#page + '-' + #size")
-    public PagedProducts<ProductDTO> getAllProducts(int page, int size) {
+    @Cacheable(value = CacheConfig.PRODUCTS_CACHE, key = "#page + '-' + #size + '-' + #fields",
+            condition = "!@catalogReadModel.isServing()")
+    public PagedProducts<ProductDTO> getAllProducts(int page, int size, ProductFields fields) {
         page-=1;
-        Pageable pageable = PageRequest.of(page, size);
+        if (catalogReadModel.isServing()) {
+            return select(catalogReadModel.page(page, size), fields);
+        }
+        Pageable pageable = PageRequest.of(page, size, Sort.by("id"));
+        if (!fields.isAll()) {
+            return pageWithFields(Specification.unrestricted(), pageable, fields, TotalCount.EXACT, null);
+        }
         return new PagedProducts<>(productRepository.findAll(pageable).map(productMapper::toDTO));
     }
 
     /**
      * Advanced Product search engine
+     * Results are cached per normalized criteria, so equivalent queries share one entry.
+     * Name filters are resolved through the name index when it can answer them.
+     * Unless an exact total is requested, the page is read without a count query: one extra row tells
+     * whether a next page exists, and the total comes from {@link SearchCountCache} or is left out.
+     * @param fields properties to return; columns left out are not selected
      */
+    @Cacheable(value = CacheConfig.SEARCH_CACHE,
+            key = "#criteria.fingerprint(#page, #size) + '|' + #count + '|' + #fields",
+            condition = "!@catalogReadModel.isServing()")
     public PagedProducts<ProductDTO> advancedSearch(
-            int page, int size, ProductSearchCriteria criteria
+            int page, int size, ProductSearchCriteria criteria, TotalCount count, ProductFields fields
     ) {
         page-=1;
         validateQuery(criteria);
-        Sort sort =
-                criteria.getSortDir().equalsIgnoreCase("desc")
-                        ? Sort.by(criteria.getSortBy()).descending()
-                        : Sort.by(criteria.getSortBy()).ascending();
-        Pageable pageable = PageRequest.of(page, size, sort);
+        criteria = criteria.normalized();
+        long[] attributeMatches = criteria.hasAttributes()
+                ? productAttributeService.findProductIds(criteria.getAttributes())
+                : null;
+        if (catalogReadModel.isServing()) {
+            long[] nameMatches = productNameIndex.findIds(criteria.getName()).orElse(null);
+            // Exact totals come for free from the snapshot
+            PagedProducts<ProductDTO> result = select(
+                    catalogReadModel.search(page, size, criteria, SortedIds.intersect(nameMatches, attributeMatches)),
+                    fields);
+            return TotalCount.NONE == count ? result.withoutTotals() : result;
+        }
+        Pageable pageable = PageRequest.of(page, size, sort(criteria));
+
+        // Restrict the query to known ids: attribute matches always, name index matches when few enough
+        long[] restrictTo = SortedIds.intersect(
+                productNameIndex.findIdsForQuery(criteria.getName()).orElse(null), attributeMatches);
+        if (null != restrictTo && restrictTo.length == 0) {
+            return TotalCount.EXACT == count
+                    ? new PagedProducts<>(Page.empty(pageable))
+                    : new PagedProducts<>(new SliceImpl<>(List.<ProductDTO>of(), pageable, false),
+                            TotalCount.NONE == count ? null : 0L);
+        }
+        Specification<Product> filters = filters(criteria, restrictTo);
+        if (!fields.isAll()) {
+            return pageWithFields(filters, pageable, fields, count, criteria);
+        }
+        if (TotalCount.EXACT == count) {
+            return new PagedProducts<>(productRepository.findAll(filters, pageable).map(productMapper::toDTO));
+        }
+        Slice<Product> slice = productRepository.findBy(filters, query -> query.slice(pageable));
+        Long total = TotalCount.ESTIMATE == count ? searchCountCache.count(criteria) : null;
+        return new PagedProducts<>(slice.map(productMapper::toDTO), total);
+    }
+
+    /**
+     * One page selecting only the columns of the fields, with the totals the count mode asks for
+     * @param criteria for estimated totals; unused by the other modes
+     */
+    private PagedProducts<ProductDTO> pageWithFields(Specification<Product> filters, Pageable pageable,
+                                                     ProductFields fields, TotalCount count,
+                                                     ProductSearchCriteria criteria) {
+        int size = pageable.getPageSize();
+        if (TotalCount.EXACT == count) {
+            List<ProductDTO> content = productMapper.toDTOList(productRepository.findAllWithAttributes(
+                    filters, fields.names(), pageable.getSort(), pageable.getOffset(), size));
+            return new PagedProducts<>(
+                    PageableExecutionUtils.getPage(content, pageable, () -> productRepository.count(filters)));
+        }
+        List<Product> rows = productRepository.findAllWithAttributes(
+                filters, fields.names(), pageable.getSort(), pageable.getOffset(), size + 1);
+        boolean hasNext = rows.size() > size;
+        Slice<ProductDTO> slice = new SliceImpl<>(
+                productMapper.toDTOList(hasNext ? rows.subList(0, size) : rows), pageable, hasNext);
+        Long total = TotalCount.ESTIMATE == count ? searchCountCache.count(criteria) : null;
+        return new PagedProducts<>(slice, total);
+    }
+
+    private static PagedProducts<ProductDTO> select(PagedProducts<ProductDTO> page, ProductFields fields) {
+        return fields.isAll()
+                ? page
+                : new PagedProducts<>(page.products().stream().map(fields::apply).toList(), page.pagination());
+    }
+
+    /**
+     * Get all products with keyset pagination, sorted by id
+     * @param cursor token from the previous page, or null/blank for the first page
+     */
+    public CursorPage<ProductDTO> getProductsAfter(String cursor, int size, ProductFields fields) {
+        return advancedSearchAfter(cursor, size, new ProductSearchCriteria(), fields);
+    }
+
+    /**
+     * Advanced search with keyset pagination. Each page seeks past the (sort key, id) of the last product
+     * returned instead of skipping an OFFSET, so deep pages cost the same as the first one.
+     * One extra row is fetched to tell whether there is a next page.
+     * @param cursor token from the previous page, or null/blank for the first page
+     * @param fields properties to return; the sort column is read as well to build the next cursor
+     * @throws IllegalArgumentException if the cursor is invalid or was issued for other criteria
+     */
+    public CursorPage<ProductDTO> advancedSearchAfter(
+            String cursor, int size, ProductSearchCriteria criteria, ProductFields fields) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size should be greater than zero");
+        }
+        validateQuery(criteria);
+        criteria = criteria.normalized();
+        PageCursor after = null == cursor || cursor.isBlank() ? null : PageCursor.decode(cursor, criteria);
+        long[] attributeMatches = criteria.hasAttributes()
+                ? productAttributeService.findProductIds(criteria.getAttributes())
+                : null;
 
-        Page<Product> result = productRepository.findAdvanced(
-                criteria.getName(), criteria.getMinPrice(), criteria.getMaxPrice(), criteria.getMinRating(), pageable
-        );
+        List<ProductDTO> products;
+        if (catalogReadModel.isServing()) {
+            long[] nameMatches = productNameIndex.findIds(criteria.getName()).orElse(null);
+            products = catalogReadModel.searchAfter(
+                    criteria, SortedIds.intersect(nameMatches, attributeMatches), after, size + 1);
+        } else {
+            long[] restrictTo = SortedIds.intersect(
+                    productNameIndex.findIdsForQuery(criteria.getName()).orElse(null), attributeMatches);
+            products = null != restrictTo && restrictTo.length == 0
+                    ? List.of()
+                    : productMapper.toDTOList(seek(criteria, restrictTo, after, size + 1, fields));
+        }
 
-        return new PagedProducts<>(result.map(productMapper::toDTO));
+        if (products.size() <= size) {
+            return new CursorPage<>(products.stream().map(fields::apply).toList(), null);
+        }
+        List<ProductDTO> page = products.subList(0, size);
+        String nextCursor = PageCursor.after(criteria, page.get(size - 1)).encode();
+        return new CursorPage<>(page.stream().map(fields::apply).toList(), nextCursor);
+    }
+
+    private List<Product> seek(
+            ProductSearchCriteria criteria, long[] restrictTo, PageCursor after, int limit, ProductFields fields) {
+        boolean descending = "desc".equals(criteria.getSortDir());
+        String sortBy = criteria.getSortBy();
+        Specification<Product> filters = filters(criteria, restrictTo);
+        if (null != after) {
+            filters = filters.and(ProductSpecifications.after(sortBy, descending, after.sortKey(sortBy), after.id()));
+        }
+        if (!fields.isAll()) {
+            return productRepository.findAllWithAttributes(
+                    filters, fields.with(sortBy).names(), sort(criteria), 0, limit);
+        }
+        return productRepository.findBy(filters, query -> query.sortBy(sort(criteria)).limit(limit).all());
+    }
+
+    /**
+     * Order of the criteria with ties broken by id in the same direction, as the (column, id) indexes
+     * hold them; pages never overlap and keyset seeks follow the index
+     */
+    private static Sort sort(ProductSearchCriteria criteria) {
+        Sort.Direction direction = "desc".equals(criteria.getSortDir()) ? Sort.Direction.DESC : Sort.Direction.ASC;
+        return "id".equals(criteria.getSortBy())
+                ? Sort.by(direction, "id")
+                : Sort.by(direction, criteria.getSortBy(), "id");
+    }
+
+    /**
+     * Predicates for the criteria filters, restricted to the given ids unless null
+     */
+    private static Specification<Product> filters(ProductSearchCriteria criteria, long[] restrictTo) {
+        Specification<Product> filters = ProductSpecifications.matching(
+                criteria.getName(), criteria.getMinPrice(), criteria.getMaxPrice(), criteria.getMinRating());
+        return null == restrictTo ? filters : filters.and(ProductSpecifications.idIn(SortedIds.toList(restrictTo)));
+    }
+
+    /**
+     * Full-text search over description and specifications, best matches first (BM25)
+     * totalElements is exact up to the full-text max-results setting and a lower bound beyond it.
+     */
+    public PagedProducts<ProductDTO> fullTextSearch(int page, int size, String query) {
+        page-=1;
+        if (null == query || query.isBlank()) {
+            throw new IllegalArgumentException("Search query should not be empty");
+        }
+        Pageable pageable = PageRequest.of(page, size);
+        int offset = (int) pageable.getOffset();
+        Bm25Index.TopHits hits = productTextIndex.search(query, offset, size);
+        List<Long> ids = Arrays.stream(hits.ids())
+                .skip(offset)
+                .boxed()
+                .toList();
+
+        List<ProductDTO> products;
+        if (catalogReadModel.isServing()) {
+            products = catalogReadModel.findAllById(ids);
+        } else {
+            // Keep the ranking order; products deleted since the lookup are left out
+            Map<Long, ProductDTO> byId = productRepository.findAllById(ids).stream()
+                    .map(productMapper::toDTO)
+                    .collect(Collectors.toMap(ProductDTO::id, Function.identity()));
+            products = ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+        }
+        return new PagedProducts<>(new PageImpl<>(products, pageable, hits.totalHits()), hits.totalExact());
     }
 
     /**
-     * Get one product by id
+     * Get one product by id, with its version
      * @throws ResourceNotFoundException if product is not found
      */
-    public ProductDTO getProductById(Long id) {
+    @Cacheable(value = CacheConfig.PRODUCT_CACHE, key = "#id")
+    public VersionedProduct getProductById(Long id) {
         log.info("Searching product with ID: {}", id);
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> ResourceNotFoundException.byId("Product", id));
-        return productMapper.toDTO(product);
+        return new VersionedProduct(productMapper.toDTO(product), product.getVersion());
+    }
+
+    /**
+     * Current version of a product, a single-column primary key lookup; enough to validate a cached copy
+     * @throws ResourceNotFoundException if product is not found
+     */
+    public long getProductVersion(Long id) {
+        return productRepository.findVersionById(id)
+                .orElseThrow(() -> ResourceNotFoundException.byId("Product", id));
     }
 
     /**
@@ -88,81 +329,208 @@ public class ProductService {
      * @throws IllegalArgumentException in case of an empty list of IDs
      * @throws ResourceNotFoundException if one or more products are not found
      */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<ProductDTO> getProductsByIds(List<Long> ids) {
+        return getProductsByIds(ids, ProductFields.ALL);
+    }
+
+    /**
+     * Get multiple products by ids with only the given properties, in request order without repeated ids
+     * @throws IllegalArgumentException in case of an empty list of IDs or more than app.compare.max-ids
+     * @throws ResourceNotFoundException if one or more products are not found
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<ProductDTO> getProductsByIds(List<Long> ids, ProductFields fields) {
+        PartialProducts result = findProductsByIds(ids, fields);
+        if (!result.missingIds().isEmpty()) {
+            log.warn("Could not find products with the following IDs: {}", result.missingIds());
+            throw new ResourceNotFoundException(
+                    "Could not find all products. Missing IDs: " + result.missingIds()
+            );
+        }
+        return result.products();
+    }
+
+    /**
+     * The products found among the ids, in request order without repeated ids, and the ids of those missing.
+     * Runs without a transaction: the database is read by {@link ProductBatchLoader}, whose parallel chunks
+     * take connections of their own while this thread waits holding none.
+     * @throws IllegalArgumentException in case of an empty list of IDs or more than app.compare.max-ids
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public PartialProducts findProductsByIds(List<Long> ids, ProductFields fields) {
         if (ids == null || ids.isEmpty()) {
             throw new IllegalArgumentException("ID list should not be empty");
         }
+        Set<Long> requested = new LinkedHashSet<>(ids);
+        List<Long> distinct = List.copyOf(requested);
+        // Checked here rather than only in the loader, so the read model is bound by the same limit
+        productBatchLoader.checkSize(distinct.size());
 
-        log.info("Getting multiple products. IDs: {}", ids);
-        List<Product> products = productRepository.findAllById(ids);
-
-        // Check all products were found
-        if (products.size() != ids.size()) {
-            List<Long> foundIds = products.stream()
-                    .map(Product::getId)
-                    .toList();
-            List<Long> missingIds = ids.stream()
-                    .filter(id -> !foundIds.contains(id))
-                    .toList();
-
-            log.warn("Could not find products with the following IDs: {}", missingIds);
-            throw new ResourceNotFoundException(
-                    "Could not find all products. Missing IDs: " + missingIds
-            );
+        log.info("Getting {} products", distinct.size());
+        log.debug("Product IDs: {}", distinct);
+        List<ProductDTO> products;
+        if (catalogReadModel.isServing()) {
+            products = catalogReadModel.findAllById(distinct).stream().map(fields::apply).toList();
+        } else {
+            products = productBatchLoader.load(distinct, fields);
         }
 
-        return productMapper.toDTOList(products);
+        Map<Long, ProductDTO> byId = new HashMap<>(products.size() * 2);
+        for (ProductDTO product : products) {
+            byId.put(product.id(), product);
+        }
+        List<ProductDTO> found = new ArrayList<>(byId.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : distinct) {
+            ProductDTO product = byId.get(id);
+            if (null != product) {
+                found.add(product);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        return new PartialProducts(found, missingIds);
     }
 
     /**
      * Create a new product
      */
     @Transactional
-    @CacheEvict(value = CacheConfig.PRODUCTS_CACHE, allEntries = true)
     public ProductDTO createProduct(ProductDTO productDTO) {
         log.info("Creating new product: {}", productDTO.name());
         Product product = productMapper.toEntity(productDTO);
         Product savedProduct = productRepository.save(product);
-        return productMapper.toDTO(savedProduct);
+        productAttributeService.replaceAttributes(savedProduct.getId(), savedProduct.getSpecifications());
+        ProductDTO result = productMapper.toDTO(savedProduct);
+        eventPublisher.publishEvent(ProductChangedEvent.created(result, savedProduct.getVersion()));
+        return result;
     }
 
     /**
-     * Update existing product
+     * Insert new products in one JDBC batch, with their attributes. Hibernate cannot batch inserts with
+     * IDENTITY ids, so this bypasses it; callers validate the products and publish a
+     * {@link ProductChangedEvent#reset()} once done, instead of one event per product.
+     * @param products unsaved products; their ids are set to the generated ones
+     */
+    @Transactional
+    public void insertProducts(List<Product> products) {
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_PRODUCT, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement statement, int i) throws SQLException {
+                        Product product = products.get(i);
+                        statement.setString(1, product.getName());
+                        statement.setString(2, product.getImageUrl());
+                        statement.setString(3, product.getDescription());
+                        statement.setBigDecimal(4, product.getPrice());
+                        statement.setDouble(5, product.getRating());
+                        statement.setString(6, product.getSpecifications());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return products.size();
+                    }
+                },
+                keys);
+        List<Map<String, Object>> generated = keys.getKeyList();
+        for (int i = 0; i < products.size(); i++) {
+            // The key column is named differently per driver (ID, GENERATED_KEY)
+            products.get(i).setId(((Number) generated.get(i).values().iterator().next()).longValue());
+        }
+        productAttributeService.insertAttributes(products);
+    }
+
+    /**
+     * Update existing product, whatever version it is at
      */
     @Transactional
-    @CacheEvict(value = CacheConfig.PRODUCTS_CACHE, allEntries = true)
     public ProductDTO updateProduct(Long id, ProductDTO productDTO) {
+        return updateProduct(id, productDTO, null).product();
+    }
+
+    /**
+     * Update existing product if it is still at the version the client read
+     * @param expectedVersion version the client based its changes on, or null to overwrite any version
+     * @return the stored product with its new version
+     * @throws org.springframework.orm.ObjectOptimisticLockingFailureException if the product is at another version
+     * @throws ResourceNotFoundException if product is not found
+     */
+    @Transactional
+    public VersionedProduct updateProduct(Long id, ProductDTO productDTO, Long expectedVersion) {
         log.info("Updating product with ID: {}", id);
         Product existingProduct = productRepository.findById(id)
                 .orElseThrow(() -> ResourceNotFoundException.byId("Product", id));
 
         Product updatedProduct = productMapper.toEntity(productDTO);
         updatedProduct.setId(existingProduct.getId());
+        // Merging a version other than the stored one makes Hibernate reject the write as stale
+        updatedProduct.setVersion(null == expectedVersion ? existingProduct.getVersion() : expectedVersion);
 
-        Product savedProduct = productRepository.save(updatedProduct);
-        return productMapper.toDTO(savedProduct);
+        // Flushed so the incremented version is known for the change event
+        Product savedProduct = productRepository.saveAndFlush(updatedProduct);
+        productAttributeService.replaceAttributes(savedProduct.getId(), savedProduct.getSpecifications());
+        ProductDTO result = productMapper.toDTO(savedProduct);
+        eventPublisher.publishEvent(ProductChangedEvent.updated(result, savedProduct.getVersion()));
+        return new VersionedProduct(result, savedProduct.getVersion());
+    }
+
+    /**
+     * Apply a merge patch with one UPDATE of the changed columns, without loading and merging the
+     * product first. The stored product is read back once for the response and the change event.
+     * @throws ConstraintViolationException if a new value breaks a product constraint
+     * @throws ResourceNotFoundException if product is not found
+     */
+    @Transactional
+    public ProductDTO patchProduct(Long id, ProductPatch patch) {
+        log.info("Patching product with ID: {}. Properties: {}", id, patch.changes().keySet());
+        Set<ConstraintViolation<Product>> violations = new HashSet<>();
+        patch.changes().forEach((property, value) ->
+                violations.addAll(validator.validateValue(Product.class, property, value)));
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+        if (!patch.isEmpty() && productRepository.updateAttributes(id, patch.changes()) == 0) {
+            throw ResourceNotFoundException.byId("Product", id);
+        }
+
+        Product savedProduct = productRepository.findById(id)
+                .orElseThrow(() -> ResourceNotFoundException.byId("Product", id));
+        ProductDTO result = productMapper.toDTO(savedProduct);
+        if (patch.isEmpty()) {
+            return result;
+        }
+        if (patch.changes().containsKey("specifications")) {
+            productAttributeService.replaceAttributes(id, savedProduct.getSpecifications());
+        }
+        eventPublisher.publishEvent(ProductChangedEvent.updated(result, savedProduct.getVersion()));
+        return result;
     }
 
     /**
      * Delete a product
      */
     @Transactional
-    @CacheEvict(value = CacheConfig.PRODUCTS_CACHE, allEntries = true)
     public void deleteProduct(Long id) {
         log.info("Deleting product with ID: {}", id);
         productRepository.deleteById(id);
+        productAttributeService.deleteAttributes(id);
+        eventPublisher.publishEvent(ProductChangedEvent.deleted(id));
     }
 
 
     @Transactional
-    @CacheEvict(value = CacheConfig.PRODUCTS_CACHE, allEntries = true)
     public void deleteAll() {
         log.info("Deleting all products...");
         entityManager.createNativeQuery("TRUNCATE TABLE product").executeUpdate();
+        productAttributeService.deleteAll();
+        eventPublisher.publishEvent(ProductChangedEvent.reset());
     }
 
     @Transactional
-    @CacheEvict(value = CacheConfig.PRODUCTS_CACHE, allEntries = true)
     public int loadSampleProducts() {
         log.info("Loading sample products...");
         Product p1 = Product.builder()
@@ -206,7 +574,12 @@ public class ProductService {
                 .build();
 
         List<Product> defaults = List.of(p1, p2, p3);
-        return productRepository.saveAll(defaults).size();
+        List<Product> saved = productRepository.saveAll(defaults);
+        saved.forEach(product ->
+                productAttributeService.replaceAttributes(product.getId(), product.getSpecifications()));
+        int loaded = saved.size();
+        eventPublisher.publishEvent(ProductChangedEvent.reset());
+        return loaded;
     }
 
 
@@ -0,0 +1,84 @@
+package dev.andresbonelli.productcomparisonapi.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import dev.andresbonelli.productcomparisonapi.api.dto.ProductSearchCriteria;
+import dev.andresbonelli.productcomparisonapi.domain.entity.Product;
+import dev.andresbonelli.productcomparisonapi.domain.repository.ProductRepository;
+import dev.andresbonelli.productcomparisonapi.domain.repository.ProductSpecifications;
+import dev.andresbonelli.productcomparisonapi.utils.SortedIds;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Approximate search totals, one per normalized filter set (the order does not change a count).
+ * A count older than refresh-after is still served while a fresh one is computed in the background,
+ * so only the first search of a filter set waits for the count query. Writes are not tracked:
+ * counts lag catalog changes by up to refresh-after on busy filters and expire-after on idle ones.
+ */
+@Component
+public class SearchCountCache implements MeterBinder {
+
+    private final ProductRepository productRepository;
+    private final ProductAttributeService productAttributeService;
+    private final LoadingCache<ProductSearchCriteria, Long> counts;
+
+    public SearchCountCache(
+            ProductRepository productRepository,
+            ProductAttributeService productAttributeService,
+            @Value("${app.search.count.max-size:10000}") long maxSize,
+            @Value("${app.search.count.refresh-after:1m}") Duration refreshAfter,
+            @Value("${app.search.count.expire-after:10m}") Duration expireAfter
+    ) {
+        this.productRepository = productRepository;
+        this.productAttributeService = productAttributeService;
+        this.counts = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .refreshAfterWrite(refreshAfter)
+                .expireAfterWrite(expireAfter)
+                .recordStats()
+                .build(this::countNow);
+    }
+
+    /**
+     * @param criteria validated and normalized search criteria
+     */
+    public long count(ProductSearchCriteria criteria) {
+        ProductSearchCriteria key = criteria.withoutOrder();
+        Long count = counts.getIfPresent(key);
+        if (null == count) {
+            // Counted outside the cache, as a load inside it would hold a map bin monitor during the query
+            // (pinning a virtual thread); concurrent first searches of a filter set may each count once
+            count = countNow(key);
+            counts.put(key, count);
+        }
+        return count;
+    }
+
+    private long countNow(ProductSearchCriteria criteria) {
+        List<Specification<Product>> filters = new ArrayList<>();
+        filters.add(ProductSpecifications.matching(
+                criteria.getName(), criteria.getMinPrice(), criteria.getMaxPrice(), criteria.getMinRating()));
+        if (criteria.hasAttributes()) {
+            long[] ids = productAttributeService.findProductIds(criteria.getAttributes());
+            if (ids.length == 0) {
+                return 0;
+            }
+            filters.add(ProductSpecifications.idIn(SortedIds.toList(ids)));
+        }
+        return productRepository.count(Specification.allOf(filters));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, counts, "searchCounts");
+    }
+}
@@ -0,0 +1,9 @@
+package dev.andresbonelli.productcomparisonapi.service;
+
+import dev.andresbonelli.productcomparisonapi.api.dto.ProductDTO;
+
+/**
+ * A product with the version it was read at, cached together so an ETag always matches its body
+ */
+public record VersionedProduct(ProductDTO product, long version) {
+}
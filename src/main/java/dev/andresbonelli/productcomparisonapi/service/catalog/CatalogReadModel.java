@@ -0,0 +1,149 @@
+package dev.andresbonelli.productcomparisonapi.service.catalog;
+
+import dev.andresbonelli.productcomparisonapi.api.dto.PageCursor;
+import dev.andresbonelli.productcomparisonapi.api.dto.PagedProducts;
+import dev.andresbonelli.productcomparisonapi.api.dto.ProductDTO;
+import dev.andresbonelli.productcomparisonapi.api.dto.ProductSearchCriteria;
+import dev.andresbonelli.productcomparisonapi.domain.repository.ProductRepository;
+import dev.andresbonelli.productcomparisonapi.service.ProductChangedEvent;
+import dev.andresbonelli.productcomparisonapi.utils.ProductMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Optional in-memory read model of the catalog (app.catalog.read-model.enabled).
+ * Reads work on the current {@link CatalogSnapshot} without locks or database connections;
+ * product writes publish a new snapshot once their transaction commits.
+ */
+@Component("catalogReadModel")
+@Slf4j
+public class CatalogReadModel {
+
+    private final ProductRepository productRepository;
+    private final ProductMapper productMapper;
+    private final boolean enabled;
+    private volatile CatalogSnapshot snapshot;
+    // Reloads read the whole catalog over JDBC; a monitor held meanwhile would pin a virtual thread
+    private final Lock writeLock = new ReentrantLock();
+
+    public CatalogReadModel(
+            ProductRepository productRepository,
+            ProductMapper productMapper,
+            @Value("${app.catalog.read-model.enabled:false}") boolean enabled
+    ) {
+        this.productRepository = productRepository;
+        this.productMapper = productMapper;
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return true once the snapshot is loaded and reads should be served from it
+     */
+    public boolean isServing() {
+        return enabled && null != snapshot;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (enabled) {
+            reload();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(ProductChangedEvent.DERIVED_STATE_ORDER)
+    public void onProductChanged(ProductChangedEvent event) {
+        writeLock.lock();
+        try {
+            if (!enabled || null == snapshot) {
+                return;
+            }
+            switch (event.type()) {
+                case CREATED, UPDATED -> snapshot = snapshot.withProduct(event.product());
+                case DELETED -> snapshot = snapshot.withoutProduct(event.productId());
+                case RESET -> reload();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public PagedProducts<ProductDTO> page(int page, int size) {
+        CatalogSnapshot current = snapshot;
+        int from = (int) Math.min((long) page * size, current.size());
+        int to = Math.min(from + size, current.size());
+        List<ProductDTO> content = new ArrayList<>(to - from);
+        for (int row = from; row < to; row++) {
+            content.add(current.get(row));
+        }
+        return new PagedProducts<>(new PageImpl<>(content, PageRequest.of(page, size, Sort.by("id")), current.size()));
+    }
+
+    /**
+     * @param criteria validated and normalized search criteria
+     * @param restrictTo ascending ids the result is restricted to, or null for no restriction
+     */
+    public PagedProducts<ProductDTO> search(
+            int page, int size, ProductSearchCriteria criteria, long[] restrictTo) {
+        CatalogSnapshot current = snapshot;
+        int[] rows = current.search(criteria, restrictTo);
+        int from = (int) Math.min((long) page * size, rows.length);
+        int to = Math.min(from + size, rows.length);
+        Sort sort = Sort.by(Sort.Direction.fromString(criteria.getSortDir()), criteria.getSortBy());
+        return new PagedProducts<>(new PageImpl<>(
+                current.rows(rows, from, to), PageRequest.of(page, size, sort), rows.length));
+    }
+
+    /**
+     * Keyset page: the first matching products after the cursor, in the order of the criteria
+     * @param criteria validated and normalized search criteria
+     * @param restrictTo ascending ids the result is restricted to, or null for no restriction
+     * @param after position to continue from, or null for the first page
+     */
+    public List<ProductDTO> searchAfter(
+            ProductSearchCriteria criteria, long[] restrictTo, PageCursor after, int limit) {
+        CatalogSnapshot current = snapshot;
+        int[] rows = current.search(criteria, restrictTo);
+        int from = null == after ? 0 : current.positionAfter(rows, criteria, after);
+        return current.rows(rows, from, (int) Math.min((long) from + limit, rows.length));
+    }
+
+    /**
+     * Products for the given ids that exist, in request order
+     */
+    public List<ProductDTO> findAllById(List<Long> ids) {
+        CatalogSnapshot current = snapshot;
+        List<ProductDTO> found = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            int row = current.rowOf(id);
+            if (row >= 0) {
+                found.add(current.get(row));
+            }
+        }
+        return found;
+    }
+
+    private void reload() {
+        writeLock.lock();
+        try {
+            List<ProductDTO> products = productMapper.toDTOList(productRepository.findAll());
+            snapshot = CatalogSnapshot.of(products);
+            log.info("Catalog read model loaded. Products: {}", snapshot.size());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+}
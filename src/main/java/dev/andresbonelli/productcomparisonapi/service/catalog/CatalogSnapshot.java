@@ -0,0 +1,376 @@
+package dev.andresbonelli.productcomparisonapi.service.catalog;
+
+import dev.andresbonelli.productcomparisonapi.api.dto.PageCursor;
+import dev.andresbonelli.productcomparisonapi.api.dto.ProductDTO;
+import dev.andresbonelli.productcomparisonapi.api.dto.ProductSearchCriteria;
+import dev.andresbonelli.productcomparisonapi.utils.SortedIds;
+import dev.andresbonelli.productcomparisonapi.utils.TextFolding;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, column-oriented copy of the whole catalog, rows ordered by id.
+ * Numeric columns are primitive arrays; repeated strings share one instance.
+ * Price and rating are additionally held in {@link SortedIndex}es for range filters and sorted pagination.
+ * Writers never modify a snapshot, they derive a new one with {@link #withProduct} / {@link #withoutProduct},
+ * which also carries the indexes over incrementally instead of re-sorting them.
+ */
+public final class CatalogSnapshot {
+
+    public static final CatalogSnapshot EMPTY = new CatalogSnapshot(
+            new long[0], new long[0], new double[0],
+            new String[0], new String[0], new String[0], new String[0], new String[0]
+    );
+
+    private final long[] ids;
+    private final long[] priceCents;
+    private final double[] ratings;
+    private final String[] names;
+    private final String[] foldedNames;
+    private final String[] imageUrls;
+    private final String[] descriptions;
+    private final String[] specifications;
+    // Assigned before a snapshot is published, never changed afterwards
+    private SortedIndex priceIndex = SortedIndex.EMPTY;
+    private SortedIndex ratingIndex = SortedIndex.EMPTY;
+
+    private CatalogSnapshot(long[] ids, long[] priceCents, double[] ratings, String[] names, String[] foldedNames,
+                            String[] imageUrls, String[] descriptions, String[] specifications) {
+        this.ids = ids;
+        this.priceCents = priceCents;
+        this.ratings = ratings;
+        this.names = names;
+        this.foldedNames = foldedNames;
+        this.imageUrls = imageUrls;
+        this.descriptions = descriptions;
+        this.specifications = specifications;
+    }
+
+    /**
+     * Build a snapshot from products in any order
+     */
+    public static CatalogSnapshot of(Collection<ProductDTO> products) {
+        ProductDTO[] sorted = products.toArray(ProductDTO[]::new);
+        Arrays.sort(sorted, Comparator.comparing(ProductDTO::id));
+        int n = sorted.length;
+        Map<String, String> pool = new HashMap<>();
+        CatalogSnapshot snapshot = new CatalogSnapshot(
+                new long[n], new long[n], new double[n],
+                new String[n], new String[n], new String[n], new String[n], new String[n]
+        );
+        for (int i = 0; i < n; i++) {
+            snapshot.set(i, sorted[i], pool);
+        }
+        snapshot.priceIndex = SortedIndex.build(snapshot.priceCents);
+        long[] ratingKeys = new long[n];
+        for (int i = 0; i < n; i++) {
+            ratingKeys[i] = SortedIndex.ratingKey(snapshot.ratings[i]);
+        }
+        snapshot.ratingIndex = SortedIndex.build(ratingKeys);
+        return snapshot;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * Copy of this snapshot with the product inserted, or replaced if its id is already present
+     */
+    public CatalogSnapshot withProduct(ProductDTO product) {
+        int position = Arrays.binarySearch(ids, product.id());
+        Map<String, String> pool = new HashMap<>();
+        if (position >= 0) {
+            CatalogSnapshot copy = copy();
+            copy.set(position, product, pool);
+            copy.priceIndex = priceIndex.withRowUpdated(position, priceCents[position], copy.priceCents[position]);
+            copy.ratingIndex = ratingIndex.withRowUpdated(position,
+                    SortedIndex.ratingKey(ratings[position]), SortedIndex.ratingKey(copy.ratings[position]));
+            return copy;
+        }
+        int insertAt = -position - 1;
+        CatalogSnapshot copy = copyWithGap(insertAt);
+        copy.set(insertAt, product, pool);
+        copy.priceIndex = priceIndex.withRowInserted(insertAt, copy.priceCents[insertAt]);
+        copy.ratingIndex = ratingIndex.withRowInserted(insertAt, SortedIndex.ratingKey(copy.ratings[insertAt]));
+        return copy;
+    }
+
+    /**
+     * Copy of this snapshot without the given product, or this snapshot if it is not present
+     */
+    public CatalogSnapshot withoutProduct(Long id) {
+        int position = Arrays.binarySearch(ids, id);
+        if (position < 0) {
+            return this;
+        }
+        int n = ids.length - 1;
+        CatalogSnapshot copy = new CatalogSnapshot(
+                new long[n], new long[n], new double[n],
+                new String[n], new String[n], new String[n], new String[n], new String[n]
+        );
+        copy.copyRange(this, 0, 0, position);
+        copy.copyRange(this, position + 1, position, n - position);
+        copy.priceIndex = priceIndex.withRowRemoved(position, priceCents[position]);
+        copy.ratingIndex = ratingIndex.withRowRemoved(position, SortedIndex.ratingKey(ratings[position]));
+        return copy;
+    }
+
+    public ProductDTO get(int row) {
+        return new ProductDTO(
+                ids[row],
+                names[row],
+                imageUrls[row],
+                descriptions[row],
+                BigDecimal.valueOf(priceCents[row], ProductSearchCriteria.PRICE_SCALE),
+                ratings[row],
+                specifications[row]
+        );
+    }
+
+    /**
+     * @return the row holding the id, or a negative value if absent
+     */
+    public int rowOf(long id) {
+        return Arrays.binarySearch(ids, id);
+    }
+
+    public long idAt(int row) {
+        return ids[row];
+    }
+
+    public long priceCentsAt(int row) {
+        return priceCents[row];
+    }
+
+    public double ratingAt(int row) {
+        return ratings[row];
+    }
+
+    public String foldedNameAt(int row) {
+        return foldedNames[row];
+    }
+
+    /**
+     * Rows matching normalized criteria, sorted as the criteria request.
+     * Price and rating bounds become binary searches on the sorted indexes; sorting by price or rating
+     * walks the matching index slice, sorting by id is a primitive sort of row numbers.
+     */
+    public int[] search(ProductSearchCriteria criteria) {
+        return search(criteria, null);
+    }
+
+    /**
+     * Same as {@link #search(ProductSearchCriteria)}, restricted to the given products
+     * (e.g. resolved by the name index or attribute filters). Starts from them when they are fewer
+     * than the rows the price or rating bounds leave.
+     * @param restrictTo ascending ids the result may contain, or null for no restriction
+     */
+    public int[] search(ProductSearchCriteria criteria, long[] restrictTo) {
+        long minCents = null == criteria.getMinPrice() ? Long.MIN_VALUE : toCents(criteria.getMinPrice());
+        long maxCents = null == criteria.getMaxPrice() ? Long.MAX_VALUE : toCents(criteria.getMaxPrice());
+        double minRating = null == criteria.getMinRating() ? Double.NEGATIVE_INFINITY : criteria.getMinRating();
+        String name = criteria.getName();
+        String sortBy = criteria.getSortBy();
+        boolean descending = "desc".equals(criteria.getSortDir());
+
+        int priceFrom = priceIndex.lowerBound(minCents);
+        int priceTo = priceIndex.upperBound(maxCents);
+        int ratingFrom = null == criteria.getMinRating()
+                ? 0
+                : ratingIndex.lowerBound(SortedIndex.ratingKey(minRating));
+        int ratingTo = ratingIndex.size();
+
+        // Walk the index that is either the requested order or the narrower candidate range
+        boolean byPrice = "price".equals(sortBy)
+                || (!"rating".equals(sortBy) && priceTo - priceFrom <= ratingTo - ratingFrom);
+        SortedIndex driver = byPrice ? priceIndex : ratingIndex;
+        int from = byPrice ? priceFrom : ratingFrom;
+        int to = byPrice ? priceTo : ratingTo;
+
+        int[] rows;
+        boolean indexOrder;
+        if (null != restrictTo && restrictTo.length < to - from) {
+            rows = new int[restrictTo.length];
+            int count = 0;
+            for (long id : restrictTo) {
+                int row = rowOf(id);
+                if (row >= 0 && matches(row, minCents, maxCents, minRating, name)) {
+                    rows[count++] = row;
+                }
+            }
+            rows = Arrays.copyOf(rows, count);
+            indexOrder = false;
+        } else {
+            rows = new int[Math.max(0, to - from)];
+            int count = 0;
+            for (int position = from; position < to; position++) {
+                int row = driver.rowAt(position);
+                if (matches(row, minCents, maxCents, minRating, name)
+                        && (null == restrictTo || SortedIds.contains(restrictTo, ids[row]))) {
+                    rows[count++] = row;
+                }
+            }
+            rows = Arrays.copyOf(rows, count);
+            indexOrder = true;
+        }
+
+        switch (sortBy) {
+            case "price" -> {
+                if (!indexOrder) {
+                    rows = sortRows(rows, Comparator.comparingLong(row -> priceCents[row]));
+                }
+            }
+            case "rating" -> {
+                if (!indexOrder) {
+                    rows = sortRows(rows, Comparator.comparingDouble(row -> ratings[row]));
+                }
+            }
+            case "id" -> Arrays.sort(rows);
+            case "name" -> {
+                return sortByName(rows, descending);
+            }
+            default -> throw new IllegalArgumentException("Invalid sorting criteria");
+        }
+        if (descending) {
+            reverse(rows);
+        }
+        return rows;
+    }
+
+    private boolean matches(int row, long minCents, long maxCents, double minRating, String name) {
+        return priceCents[row] >= minCents && priceCents[row] <= maxCents && ratings[row] >= minRating
+                && (null == name || foldedNames[row].contains(name));
+    }
+
+    /**
+     * Sort by the given key, ties by row as in the sorted indexes
+     */
+    private static int[] sortRows(int[] rows, Comparator<Integer> key) {
+        return Arrays.stream(rows).boxed()
+                .sorted(key.thenComparingInt(row -> row))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    /**
+     * Sort by folded name, ties by row; descending reverses both like the other sort keys
+     */
+    private int[] sortByName(int[] rows, boolean descending) {
+        Comparator<Integer> order = Comparator.comparing((Integer row) -> foldedNames[row]).thenComparingInt(row -> row);
+        if (descending) {
+            order = order.reversed();
+        }
+        return Arrays.stream(rows).boxed().sorted(order).mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Position of the first row after the cursor in rows returned by {@link #search} for the same criteria.
+     * Rows are ordered by (sort key, id), so this is a binary search.
+     */
+    public int positionAfter(int[] rows, ProductSearchCriteria criteria, PageCursor cursor) {
+        String sortBy = criteria.getSortBy();
+        boolean descending = "desc".equals(criteria.getSortDir());
+        Comparable<?> key = cursor.sortKey(sortBy);
+        int low = 0;
+        int high = rows.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int comparison = compareTo(rows[middle], sortBy, key, cursor.id());
+            if (descending ? comparison < 0 : comparison > 0) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Compare a row with a (sort key, id) position in ascending order
+     */
+    private int compareTo(int row, String sortBy, Comparable<?> key, long id) {
+        int comparison = switch (sortBy) {
+            case "name" -> foldedNames[row].compareTo(TextFolding.fold((String) key));
+            case "price" -> Long.compare(priceCents[row], toCents((BigDecimal) key));
+            case "rating" -> Double.compare(ratings[row], (Double) key);
+            default -> 0;
+        };
+        return comparison != 0 ? comparison : Long.compare(ids[row], id);
+    }
+
+    public List<ProductDTO> rows(int[] rows, int from, int to) {
+        List<ProductDTO> result = new ArrayList<>(Math.max(0, to - from));
+        for (int i = from; i < to; i++) {
+            result.add(get(rows[i]));
+        }
+        return result;
+    }
+
+    public static long toCents(BigDecimal price) {
+        return price.setScale(ProductSearchCriteria.PRICE_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private void set(int row, ProductDTO product, Map<String, String> pool) {
+        ids[row] = product.id();
+        priceCents[row] = toCents(product.price());
+        ratings[row] = product.rating();
+        names[row] = share(product.name(), pool);
+        foldedNames[row] = share(TextFolding.fold(product.name()), pool);
+        imageUrls[row] = share(product.imageUrl(), pool);
+        descriptions[row] = share(product.description(), pool);
+        specifications[row] = share(product.specifications(), pool);
+    }
+
+    /**
+     * Reuse an equal string already seen while building, so repeated values are stored once
+     */
+    private String share(String value, Map<String, String> pool) {
+        return null == value ? null : pool.computeIfAbsent(value, v -> v);
+    }
+
+    private CatalogSnapshot copy() {
+        return new CatalogSnapshot(
+                ids.clone(), priceCents.clone(), ratings.clone(), names.clone(), foldedNames.clone(),
+                imageUrls.clone(), descriptions.clone(), specifications.clone()
+        );
+    }
+
+    private CatalogSnapshot copyWithGap(int gapAt) {
+        int n = ids.length + 1;
+        CatalogSnapshot copy = new CatalogSnapshot(
+                new long[n], new long[n], new double[n],
+                new String[n], new String[n], new String[n], new String[n], new String[n]
+        );
+        copy.copyRange(this, 0, 0, gapAt);
+        copy.copyRange(this, gapAt, gapAt + 1, ids.length - gapAt);
+        return copy;
+    }
+
+    private void copyRange(CatalogSnapshot source, int from, int to, int length) {
+        System.arraycopy(source.ids, from, ids, to, length);
+        System.arraycopy(source.priceCents, from, priceCents, to, length);
+        System.arraycopy(source.ratings, from, ratings, to, length);
+        System.arraycopy(source.names, from, names, to, length);
+        System.arraycopy(source.foldedNames, from, foldedNames, to, length);
+        System.arraycopy(source.imageUrls, from, imageUrls, to, length);
+        System.arraycopy(source.descriptions, from, descriptions, to, length);
+        System.arraycopy(source.specifications, from, specifications, to, length);
+    }
+
+    private static void reverse(int[] rows) {
+        for (int i = 0, j = rows.length - 1; i < j; i++, j--) {
+            int tmp = rows[i];
+            rows[i] = rows[j];
+            rows[j] = tmp;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package dev.andresbonelli.productcomparisonapi.service.catalog;
+
+import dev.andresbonelli.productcomparisonapi.service.ProductChangedEvent;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Catalog-wide change counter, the validator of list and search responses: any product write may change
+ * any of them. Moves on once a write has committed and every cache and index has caught up with it, so a
+ * response computed after reading a version never predates that version.
+ * <p>
+ * The counter lives in memory and starts over with the application; tokens carry the start time, so a
+ * token issued before a restart, or by another instance, never matches.
+ */
+@Component
+public class CatalogVersion implements MeterBinder {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+    private final AtomicLong changes = new AtomicLong();
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onProductChanged(ProductChangedEvent event) {
+        changes.incrementAndGet();
+    }
+
+    /**
+     * Opaque token of the current catalog state; read it before computing the response it validates
+     */
+    public String current() {
+        return epoch + "-" + changes.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("catalog.changes", changes, AtomicLong::get)
+                .description("Product writes seen since startup")
+                .register(registry);
+    }
+}
@@ -0,0 +1,127 @@
+package dev.andresbonelli.productcomparisonapi.service.catalog;
+
+import dev.andresbonelli.productcomparisonapi.domain.repository.ProductRepository;
+import dev.andresbonelli.productcomparisonapi.service.ProductChangedEvent;
+import dev.andresbonelli.productcomparisonapi.utils.TrigramIndex;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Optional;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+
+/**
+ * Trigram index over product names (app.catalog.name-index.enabled).
+ * Turns "name contains" filters into posting list intersections instead of a LIKE '%...%' table scan.
+ * Kept current from product write events once their transaction commits.
+ */
+@Component
+@Slf4j
+public class ProductNameIndex implements MeterBinder {
+
+    private final ProductRepository productRepository;
+    private final boolean enabled;
+    private final int maxQueryIds;
+    // Null until loaded; a reload fills a new index and swaps it in, so searches never see a partial one
+    private volatile TrigramIndex index;
+    // Not synchronized: reload streams names over JDBC and must not pin a virtual thread
+    private final Lock writeLock = new ReentrantLock();
+
+    public ProductNameIndex(
+            ProductRepository productRepository,
+            @Value("${app.catalog.name-index.enabled:true}") boolean enabled,
+            @Value("${app.catalog.name-index.max-query-ids:1000}") int maxQueryIds
+    ) {
+        this.productRepository = productRepository;
+        this.enabled = enabled;
+        this.maxQueryIds = maxQueryIds;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        if (enabled) {
+            reload();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(ProductChangedEvent.DERIVED_STATE_ORDER)
+    @Transactional(readOnly = true, propagation = Propagation.REQUIRES_NEW)
+    public void onProductChanged(ProductChangedEvent event) {
+        writeLock.lock();
+        try {
+            if (null == index) {
+                return;
+            }
+            switch (event.type()) {
+                case CREATED, UPDATED -> index.put(event.productId(), event.product().name());
+                case DELETED -> index.remove(event.productId());
+                case RESET -> reload();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Ids of the products whose name contains the given text, ignoring case
+     * @return empty if the index is not loaded or the text is too short to look up
+     */
+    public Optional<long[]> findIds(String name) {
+        TrigramIndex current = index;
+        if (null == current || null == name) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(current.search(name));
+    }
+
+    /**
+     * Ids to restrict a database query to, when the index knows them and they fit a reasonable IN list
+     * @return empty if the query should filter by name itself
+     */
+    public Optional<long[]> findIdsForQuery(String name) {
+        return findIds(name).filter(ids -> ids.length <= maxQueryIds);
+    }
+
+    private void reload() {
+        writeLock.lock();
+        try {
+            TrigramIndex fresh = new TrigramIndex();
+            try (Stream<ProductRepository.IdAndName> products = productRepository.streamIdsAndNames()) {
+                products.forEach(product -> fresh.put(product.getId(), product.getName()));
+            }
+            index = fresh;
+            log.info("Product name index loaded. Products: {}, trigrams: {}", fresh.size(), fresh.gramCount());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private double stat(ToIntFunction<TrigramIndex> statistic) {
+        TrigramIndex current = index;
+        return null == current ? 0 : statistic.applyAsInt(current);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("catalog.name_index.products", this, nameIndex -> nameIndex.stat(TrigramIndex::size))
+                .description("Product names held in the trigram name index")
+                .register(registry);
+        Gauge.builder("catalog.name_index.trigrams", this, nameIndex -> nameIndex.stat(TrigramIndex::gramCount))
+                .description("Distinct trigrams in the product name index")
+                .register(registry);
+    }
+}
@@ -0,0 +1,133 @@
+package dev.andresbonelli.productcomparisonapi.service.catalog;
+
+import dev.andresbonelli.productcomparisonapi.domain.repository.ProductRepository;
+import dev.andresbonelli.productcomparisonapi.service.ProductChangedEvent;
+import dev.andresbonelli.productcomparisonapi.utils.Bm25Index;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Stream;
+
+/**
+ * BM25 full-text index over product descriptions and specifications (app.catalog.text-index.enabled).
+ * Built at startup and kept current from product write events once their transaction commits.
+ */
+@Component
+@Slf4j
+public class ProductTextIndex implements MeterBinder {
+
+    private final ProductRepository productRepository;
+    private final boolean enabled;
+    private final int maxResults;
+    // Null until loaded; replaced whole on reload, as imports reset the catalog while searches run
+    private volatile Bm25Index index;
+    // Guards index writes; a ReentrantLock so the JDBC reload parks a virtual thread instead of pinning it
+    private final Lock writeLock = new ReentrantLock();
+
+    public ProductTextIndex(
+            ProductRepository productRepository,
+            @Value("${app.catalog.text-index.enabled:true}") boolean enabled,
+            @Value("${app.catalog.text-index.max-results:1000}") int maxResults
+    ) {
+        this.productRepository = productRepository;
+        this.enabled = enabled;
+        this.maxResults = maxResults;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        if (enabled) {
+            reload();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(ProductChangedEvent.DERIVED_STATE_ORDER)
+    @Transactional(readOnly = true, propagation = Propagation.REQUIRES_NEW)
+    public void onProductChanged(ProductChangedEvent event) {
+        writeLock.lock();
+        try {
+            if (null == index) {
+                return;
+            }
+            switch (event.type()) {
+                case CREATED, UPDATED -> index.put(event.productId(),
+                        text(event.product().description(), event.product().specifications()));
+                case DELETED -> index.remove(event.productId());
+                case RESET -> reload();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Best matches for the query, enough to fill the requested page; matches are counted up to max-results
+     * @param offset position of the first result of the page
+     * @throws IllegalArgumentException if the page lies beyond max-results
+     * @throws IllegalStateException if the index is disabled or not loaded yet
+     */
+    public Bm25Index.TopHits search(String query, int offset, int size) {
+        Bm25Index current = index;
+        if (null == current) {
+            throw new IllegalStateException("Full-text search is not available");
+        }
+        if ((long) offset + size > maxResults) {
+            throw new IllegalArgumentException("Only the first " + maxResults + " results can be paged through");
+        }
+        return current.search(query, offset + size, maxResults);
+    }
+
+    private void reload() {
+        writeLock.lock();
+        try {
+            Bm25Index fresh = new Bm25Index();
+            try (Stream<ProductRepository.IdAndText> products = productRepository.streamIdsAndTexts()) {
+                products.forEach(product -> fresh.put(product.getId(),
+                        text(product.getDescription(), product.getSpecifications())));
+            }
+            index = fresh;
+            log.info("Product text index loaded. Products: {}, terms: {}, posting bytes: {}",
+                    fresh.size(), fresh.termCount(), fresh.postingBytes());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private static String text(String description, String specifications) {
+        return description + "\n" + specifications;
+    }
+
+    private double stat(ToDoubleFunction<Bm25Index> statistic) {
+        Bm25Index current = index;
+        return null == current ? 0 : statistic.applyAsDouble(current);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("catalog.text_index.products", this, textIndex -> textIndex.stat(Bm25Index::size))
+                .description("Products held in the full-text index")
+                .register(registry);
+        Gauge.builder("catalog.text_index.terms", this, textIndex -> textIndex.stat(Bm25Index::termCount))
+                .description("Distinct terms in the full-text index")
+                .register(registry);
+        Gauge.builder("catalog.text_index.posting_bytes", this, textIndex -> textIndex.stat(Bm25Index::postingBytes))
+                .description("Compressed size of the full-text posting lists")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+}
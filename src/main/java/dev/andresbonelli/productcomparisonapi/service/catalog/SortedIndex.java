@@ -0,0 +1,169 @@
+package dev.andresbonelli.productcomparisonapi.service.catalog;
+
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable sorted index over one numeric column of a {@link CatalogSnapshot}.
+ * Holds the column values in ascending order with the matching snapshot rows, ties ordered by row (and so by id).
+ * Range filters are binary searches; sorting by the column is iterating a slice.
+ * Keys are longs: prices in cents, ratings through {@link #ratingKey(double)}.
+ */
+final class SortedIndex {
+
+    static final SortedIndex EMPTY = new SortedIndex(new long[0], new int[0]);
+
+    private final long[] keys;
+    private final int[] rows;
+
+    private SortedIndex(long[] keys, int[] rows) {
+        this.keys = keys;
+        this.rows = rows;
+    }
+
+    /**
+     * @param column key of every snapshot row, indexed by row
+     */
+    static SortedIndex build(long[] column) {
+        int[] order = IntStream.range(0, column.length)
+                .boxed()
+                .sorted(Comparator.<Integer>comparingLong(row -> column[row]).thenComparingInt(row -> row))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        long[] keys = new long[order.length];
+        for (int i = 0; i < order.length; i++) {
+            keys[i] = column[order[i]];
+        }
+        return new SortedIndex(keys, order);
+    }
+
+    /**
+     * Order-preserving long key for non-negative ratings
+     */
+    static long ratingKey(double rating) {
+        return Double.doubleToLongBits(rating + 0.0);
+    }
+
+    int size() {
+        return keys.length;
+    }
+
+    int rowAt(int position) {
+        return rows[position];
+    }
+
+    /**
+     * First position whose key is greater than or equal to the given key
+     */
+    int lowerBound(long key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * First position whose key is greater than the given key
+     */
+    int upperBound(long key) {
+        if (key == Long.MAX_VALUE) {
+            return keys.length;
+        }
+        return lowerBound(key + 1);
+    }
+
+    /**
+     * Index for a snapshot where a row was inserted at the given position, shifting later rows up
+     */
+    SortedIndex withRowInserted(int row, long key) {
+        int position = positionOf(key, row);
+        long[] newKeys = new long[keys.length + 1];
+        int[] newRows = new int[rows.length + 1];
+        for (int i = 0, j = 0; i < newKeys.length; i++) {
+            if (i == position) {
+                newKeys[i] = key;
+                newRows[i] = row;
+            } else {
+                newKeys[i] = keys[j];
+                newRows[i] = rows[j] >= row ? rows[j] + 1 : rows[j];
+                j++;
+            }
+        }
+        return new SortedIndex(newKeys, newRows);
+    }
+
+    /**
+     * Index for a snapshot where the given row was removed, shifting later rows down
+     */
+    SortedIndex withRowRemoved(int row, long key) {
+        int position = find(row, key);
+        long[] newKeys = new long[keys.length - 1];
+        int[] newRows = new int[rows.length - 1];
+        for (int i = 0, j = 0; i < keys.length; i++) {
+            if (i == position) {
+                continue;
+            }
+            newKeys[j] = keys[i];
+            newRows[j] = rows[i] > row ? rows[i] - 1 : rows[i];
+            j++;
+        }
+        return new SortedIndex(newKeys, newRows);
+    }
+
+    /**
+     * Index where the key of an existing row changed
+     */
+    SortedIndex withRowUpdated(int row, long oldKey, long newKey) {
+        if (oldKey == newKey) {
+            return this;
+        }
+        int from = find(row, oldKey);
+        long[] newKeys = keys.clone();
+        int[] newRows = rows.clone();
+        // Shift the entries between the old and the new position by one, then drop the row into the gap
+        int to = positionOf(newKey, row);
+        if (to > from) {
+            to--;
+            System.arraycopy(keys, from + 1, newKeys, from, to - from);
+            System.arraycopy(rows, from + 1, newRows, from, to - from);
+        } else {
+            System.arraycopy(keys, to, newKeys, to + 1, from - to);
+            System.arraycopy(rows, to, newRows, to + 1, from - to);
+        }
+        newKeys[to] = newKey;
+        newRows[to] = row;
+        return new SortedIndex(newKeys, newRows);
+    }
+
+    /**
+     * Insertion position for (key, row) among the current entries
+     */
+    private int positionOf(long key, int row) {
+        int low = lowerBound(key);
+        int high = upperBound(key);
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (rows[mid] < row) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int find(int row, long key) {
+        int position = positionOf(key, row);
+        if (position >= rows.length || rows[position] != row || keys[position] != key) {
+            throw new IllegalStateException("Row " + row + " not indexed under key " + key);
+        }
+        return position;
+    }
+}
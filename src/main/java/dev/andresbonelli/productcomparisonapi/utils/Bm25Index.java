@@ -0,0 +1,390 @@
+package dev.andresbonelli.productcomparisonapi.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Thread-safe in-memory full-text index ranked with Okapi BM25.
+ * <p>
+ * Every version of a document gets a new internal number, so posting lists are only ever appended to.
+ * Replaced and removed versions are marked dead and skipped; once they make up a large share of the index
+ * the posting lists are rewritten without them. Like other inverted indexes, document frequencies keep
+ * counting dead versions until that happens.
+ * <p>
+ * Top-k queries use WAND: documents whose best possible score cannot beat the current k-th result are
+ * skipped without being scored, and cursors jump over whole compressed blocks to get past them.
+ */
+public class Bm25Index {
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    /** Rewrite the posting lists once this share of the indexed versions is dead */
+    private static final double COMPACT_RATIO = 0.3;
+    private static final int COMPACT_MIN_DEAD = 1024;
+
+    private final Map<String, PostingList> postings = new HashMap<>();
+    private final Map<Long, Integer> docById = new HashMap<>();
+    private long[] ids = new long[16];
+    private int[] lengths = new int[16];
+    private final BitSet live = new BitSet();
+    private int nextDoc;
+    private long liveLength;
+    private int minLength = Integer.MAX_VALUE;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Matching ids, best first, with their scores
+     * @param totalHits number of matching documents, counted up to the requested limit
+     * @param totalExact false if counting stopped at the limit and there are more matches
+     */
+    public record TopHits(long[] ids, float[] scores, int totalHits, boolean totalExact) {
+    }
+
+    /**
+     * Lower-cased letter/digit runs, e.g. "Display: 6.8\" 120Hz" gives [display, 6, 8, 120hz]
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (null == text) {
+            return tokens;
+        }
+        for (String token : TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Index the text under the id, replacing any text indexed before
+     */
+    public void put(long id, String text) {
+        List<String> tokens = tokenize(text);
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String token : tokens) {
+            frequencies.merge(token, 1, Integer::sum);
+        }
+        lock.writeLock().lock();
+        try {
+            kill(id);
+            int doc = nextDoc++;
+            if (doc == ids.length) {
+                ids = Arrays.copyOf(ids, doc * 2);
+                lengths = Arrays.copyOf(lengths, doc * 2);
+            }
+            ids[doc] = id;
+            lengths[doc] = tokens.size();
+            live.set(doc);
+            docById.put(id, doc);
+            liveLength += tokens.size();
+            minLength = Math.min(minLength, tokens.size());
+            frequencies.forEach((term, frequency) ->
+                    postings.computeIfAbsent(term, t -> new PostingList()).append(doc, frequency));
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            kill(id);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            docById.clear();
+            live.clear();
+            nextDoc = 0;
+            liveLength = 0;
+            minLength = Integer.MAX_VALUE;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Best k documents for the query terms (any term may match)
+     * @param totalHitsLimit stop counting matches after this many
+     */
+    public TopHits search(String query, int k, int totalHitsLimit) {
+        Set<String> terms = new LinkedHashSet<>(tokenize(query));
+        lock.readLock().lock();
+        try {
+            int liveDocs = docById.size();
+            List<Term> matched = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                PostingList list = postings.get(term);
+                if (null != list) {
+                    matched.add(new Term(list, liveDocs, averageLength()));
+                }
+            }
+            if (matched.isEmpty() || k <= 0) {
+                return new TopHits(new long[0], new float[0], countHits(matched, totalHitsLimit), true);
+            }
+            return topHits(matched, k, totalHitsLimit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Compressed size of all posting lists in bytes
+     */
+    public long postingBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = 0;
+            for (PostingList list : postings.values()) {
+                bytes += list.byteSize();
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private TopHits topHits(List<Term> terms, int k, int totalHitsLimit) {
+        // Min-heap on score (ties: later document first out), holding the best k so far
+        PriorityQueue<Hit> heap = new PriorityQueue<>(k, Comparator.comparingDouble(Hit::score)
+                .thenComparing(Comparator.comparingInt(Hit::doc).reversed()));
+        Term[] active = terms.toArray(Term[]::new);
+        for (Term term : active) {
+            term.cursor.next();
+        }
+        float threshold = 0;
+        int count = active.length;
+        while (true) {
+            count = sortByDoc(active, count);
+            if (count == 0) {
+                break;
+            }
+            // Pivot: first cursor where the summed upper bounds could beat the threshold
+            float bound = 0;
+            int pivot = -1;
+            for (int i = 0; i < count; i++) {
+                bound += active[i].upperBound;
+                if (bound > threshold) {
+                    pivot = i;
+                    break;
+                }
+            }
+            if (pivot < 0) {
+                break;
+            }
+            int pivotDoc = active[pivot].cursor.doc();
+            if (active[0].cursor.doc() == pivotDoc) {
+                float score = 0;
+                for (int i = 0; i < count && active[i].cursor.doc() == pivotDoc; i++) {
+                    score += active[i].score(active[i].cursor.frequency(), lengths[pivotDoc]);
+                    active[i].cursor.next();
+                }
+                if (live.get(pivotDoc) && (heap.size() < k || score > threshold)) {
+                    heap.offer(new Hit(score, pivotDoc));
+                    if (heap.size() > k) {
+                        heap.poll();
+                    }
+                    if (heap.size() == k) {
+                        threshold = heap.peek().score();
+                    }
+                }
+            } else {
+                for (int i = 0; i < pivot; i++) {
+                    active[i].cursor.advance(pivotDoc);
+                }
+            }
+        }
+
+        int hits = heap.size();
+        long[] ids = new long[hits];
+        float[] scores = new float[hits];
+        for (int i = hits - 1; i >= 0; i--) {
+            Hit hit = heap.poll();
+            scores[i] = hit.score();
+            ids[i] = this.ids[hit.doc()];
+        }
+        int total = countHits(terms, totalHitsLimit);
+        return new TopHits(ids, scores, Math.max(total, hits), total < totalHitsLimit);
+    }
+
+    /**
+     * Live documents matching any term, merging fresh cursors without scoring
+     */
+    private int countHits(List<Term> terms, int limit) {
+        PostingList.Cursor[] cursors = new PostingList.Cursor[terms.size()];
+        for (int i = 0; i < cursors.length; i++) {
+            cursors[i] = terms.get(i).list.cursor();
+            cursors[i].next();
+        }
+        int hits = 0;
+        while (hits < limit) {
+            int doc = PostingList.Cursor.NO_MORE_DOCS;
+            for (PostingList.Cursor cursor : cursors) {
+                doc = Math.min(doc, cursor.doc());
+            }
+            if (doc == PostingList.Cursor.NO_MORE_DOCS) {
+                break;
+            }
+            if (live.get(doc)) {
+                hits++;
+            }
+            for (PostingList.Cursor cursor : cursors) {
+                if (cursor.doc() == doc) {
+                    cursor.next();
+                }
+            }
+        }
+        return hits;
+    }
+
+    /**
+     * Insertion sort of the first count cursors by current document, dropping exhausted ones
+     * @return number of cursors left
+     */
+    private static int sortByDoc(Term[] terms, int count) {
+        int left = 0;
+        for (int i = 0; i < count; i++) {
+            if (terms[i].cursor.doc() != PostingList.Cursor.NO_MORE_DOCS) {
+                terms[left++] = terms[i];
+            }
+        }
+        for (int i = 1; i < left; i++) {
+            Term term = terms[i];
+            int j = i - 1;
+            while (j >= 0 && terms[j].cursor.doc() > term.cursor.doc()) {
+                terms[j + 1] = terms[j];
+                j--;
+            }
+            terms[j + 1] = term;
+        }
+        return left;
+    }
+
+    private float averageLength() {
+        return docById.isEmpty() ? 1 : Math.max(1f, (float) liveLength / docById.size());
+    }
+
+    private void kill(long id) {
+        Integer previous = docById.remove(id);
+        if (null != previous) {
+            live.clear(previous);
+            liveLength -= lengths[previous];
+        }
+    }
+
+    private void compactIfNeeded() {
+        int dead = nextDoc - docById.size();
+        if (dead >= COMPACT_MIN_DEAD && dead >= nextDoc * COMPACT_RATIO) {
+            compact();
+        }
+    }
+
+    /**
+     * Renumber live documents densely and rewrite every posting list without the dead ones
+     */
+    private void compact() {
+        int[] renumbered = new int[nextDoc];
+        long[] newIds = new long[Math.max(16, docById.size())];
+        int[] newLengths = new int[newIds.length];
+        int doc = 0;
+        minLength = Integer.MAX_VALUE;
+        for (int old = live.nextSetBit(0); old >= 0; old = live.nextSetBit(old + 1)) {
+            renumbered[old] = doc;
+            newIds[doc] = ids[old];
+            newLengths[doc] = lengths[old];
+            docById.put(ids[old], doc);
+            minLength = Math.min(minLength, lengths[old]);
+            doc++;
+        }
+        Iterator<Map.Entry<String, PostingList>> entries = postings.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<String, PostingList> entry = entries.next();
+            PostingList rewritten = new PostingList();
+            PostingList.Cursor cursor = entry.getValue().cursor();
+            for (int old = cursor.next(); old != PostingList.Cursor.NO_MORE_DOCS; old = cursor.next()) {
+                if (live.get(old)) {
+                    rewritten.append(renumbered[old], cursor.frequency());
+                }
+            }
+            if (rewritten.size() == 0) {
+                entries.remove();
+            } else {
+                entry.setValue(rewritten);
+            }
+        }
+        ids = newIds;
+        lengths = newLengths;
+        nextDoc = doc;
+        live.clear();
+        live.set(0, doc);
+    }
+
+    private record Hit(float score, int doc) {
+    }
+
+    /**
+     * One query term: its postings, cursor and BM25 constants for this query
+     */
+    private final class Term {
+        private final PostingList list;
+        private final PostingList.Cursor cursor;
+        private final float idf;
+        private final float averageLength;
+        private final float upperBound;
+
+        Term(PostingList list, int liveDocs, float averageLength) {
+            this.list = list;
+            this.cursor = list.cursor();
+            // Dead versions still count in the list size; never let that make the idf negative
+            int df = Math.min(list.size(), Math.max(liveDocs, 1));
+            this.idf = (float) Math.log(1 + (liveDocs - df + 0.5) / (df + 0.5));
+            this.averageLength = averageLength;
+            // BM25 grows with the frequency and shrinks with the length: bound it with the extremes
+            this.upperBound = score(list.maxFrequency(), minLength == Integer.MAX_VALUE ? 0 : minLength);
+        }
+
+        float score(int frequency, int length) {
+            float norm = K1 * (1 - B + B * length / averageLength);
+            return idf * frequency * (K1 + 1) / (frequency + norm);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package dev.andresbonelli.productcomparisonapi.utils;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * RFC 4180 records: fields holding a comma, quote or line break are quoted, with quotes doubled
+ */
+public final class Csv {
+
+    private Csv() {
+    }
+
+    /**
+     * Append one record and its CRLF terminator; null fields are written empty
+     */
+    public static void writeRecord(Appendable out, List<String> fields) throws IOException {
+        for (int i = 0; i < fields.size(); i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            String field = fields.get(i);
+            if (null != field) {
+                writeField(out, field);
+            }
+        }
+        out.append("\r\n");
+    }
+
+    /**
+     * Read the next record, or null at the end of the input. Records end with LF or CRLF;
+     * quoted fields may hold commas, doubled quotes and line breaks.
+     * @throws IllegalArgumentException if the input ends inside a quoted field
+     */
+    public static List<String> readRecord(Reader in) throws IOException {
+        int c = in.read();
+        if (c == -1) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean quoteClosed = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IllegalArgumentException("Unterminated quoted field");
+                }
+                if (c == '"') {
+                    quoted = false;
+                    quoteClosed = true;
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"') {
+                // A quote right after a closing one is an escaped quote
+                if (quoteClosed) {
+                    field.append('"');
+                }
+                quoted = true;
+                quoteClosed = false;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+                quoteClosed = false;
+            } else if (c == '\n' || c == -1) {
+                fields.add(field.toString());
+                return fields;
+            } else if (c != '\r') {
+                field.append((char) c);
+                quoteClosed = false;
+            }
+            c = in.read();
+        }
+    }
+
+    private static void writeField(Appendable out, String field) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < field.length() && !quote; i++) {
+            char c = field.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            out.append(field);
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c == '"') {
+                out.append('"');
+            }
+            out.append(c);
+        }
+        out.append('"');
+    }
+}
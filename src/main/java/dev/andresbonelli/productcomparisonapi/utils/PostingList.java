@@ -0,0 +1,145 @@
+package dev.andresbonelli.productcomparisonapi.utils;
+
+import java.util.Arrays;
+
+/**
+ * Append-only compressed posting list: ascending document numbers with their term frequency.
+ * Each posting is stored as two varints (gap to the previous document, frequency), so most take 2 bytes.
+ * Every {@link #BLOCK_SIZE} postings a skip entry records where the block starts, letting cursors jump
+ * over whole blocks without decoding them. Not thread-safe; {@link Bm25Index} guards access.
+ */
+final class PostingList {
+    static final int BLOCK_SIZE = 64;
+
+    private byte[] data = new byte[16];
+    private int length;
+    private int size;
+    private int lastDoc = -1;
+    private int maxFrequency;
+    // Skip entries, one per block: last document of the previous block and byte offset of the block
+    private int[] blockBaseDocs = new int[1];
+    private int[] blockOffsets = new int[1];
+    private int blocks;
+
+    /**
+     * @param doc greater than every document appended before
+     */
+    void append(int doc, int frequency) {
+        if (doc <= lastDoc) {
+            throw new IllegalArgumentException("Documents must be appended in ascending order");
+        }
+        if (size % BLOCK_SIZE == 0) {
+            if (blocks == blockOffsets.length) {
+                blockBaseDocs = Arrays.copyOf(blockBaseDocs, blocks * 2);
+                blockOffsets = Arrays.copyOf(blockOffsets, blocks * 2);
+            }
+            blockBaseDocs[blocks] = lastDoc;
+            blockOffsets[blocks] = length;
+            blocks++;
+        }
+        writeVarInt(doc - lastDoc);
+        writeVarInt(frequency);
+        lastDoc = doc;
+        maxFrequency = Math.max(maxFrequency, frequency);
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int maxFrequency() {
+        return maxFrequency;
+    }
+
+    /**
+     * Compressed size in bytes, without the skip entries
+     */
+    int byteSize() {
+        return length;
+    }
+
+    Cursor cursor() {
+        return new Cursor();
+    }
+
+    private void writeVarInt(int value) {
+        if (length + 5 > data.length) {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, length + 5));
+        }
+        while ((value & ~0x7F) != 0) {
+            data[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data[length++] = (byte) value;
+    }
+
+    /**
+     * Forward-only iterator over the postings. Starts before the first posting.
+     * Reads only what was appended when it was created.
+     */
+    final class Cursor {
+        static final int NO_MORE_DOCS = Integer.MAX_VALUE;
+
+        private final int end = length;
+        private final int count = size;
+        private int offset;
+        private int read;
+        private int doc = -1;
+        private int frequency;
+
+        int doc() {
+            return doc;
+        }
+
+        int frequency() {
+            return frequency;
+        }
+
+        int next() {
+            if (read == count) {
+                return doc = NO_MORE_DOCS;
+            }
+            doc += readVarInt();
+            frequency = readVarInt();
+            read++;
+            return doc;
+        }
+
+        /**
+         * Move to the first document greater than or equal to the target, skipping whole blocks where possible
+         */
+        int advance(int target) {
+            if (doc >= target) {
+                return doc;
+            }
+            int block = read / BLOCK_SIZE;
+            int skipTo = block;
+            // The next block's base is the last document of the current one; skip while it is below the target
+            while (skipTo + 1 < blocks && blockOffsets[skipTo + 1] < end && blockBaseDocs[skipTo + 1] < target) {
+                skipTo++;
+            }
+            if (skipTo > block) {
+                offset = blockOffsets[skipTo];
+                read = skipTo * BLOCK_SIZE;
+                doc = blockBaseDocs[skipTo];
+            }
+            while (doc < target) {
+                next();
+            }
+            return doc;
+        }
+
+        private int readVarInt() {
+            int value = 0;
+            int shift = 0;
+            byte current;
+            do {
+                current = data[offset++];
+                value |= (current & 0x7F) << shift;
+                shift += 7;
+            } while ((current & 0x80) != 0);
+            return value;
+        }
+    }
+}
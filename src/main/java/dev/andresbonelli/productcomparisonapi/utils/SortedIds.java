@@ -0,0 +1,51 @@
+package dev.andresbonelli.productcomparisonapi.utils;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Helpers for id sets held as ascending long arrays
+ */
+public final class SortedIds {
+
+    private SortedIds() {
+    }
+
+    /**
+     * Ids present in both arrays. A null array stands for "no restriction" and yields the other one.
+     */
+    public static long[] intersect(long[] a, long[] b) {
+        if (null == a) {
+            return b;
+        }
+        if (null == b) {
+            return a;
+        }
+        long[] result = new long[Math.min(a.length, b.length)];
+        int count = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[count++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    public static boolean contains(long[] ids, long id) {
+        return Arrays.binarySearch(ids, id) >= 0;
+    }
+
+    public static long[] of(List<Long> ascending) {
+        return ascending.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    public static List<Long> toList(long[] ids) {
+        return Arrays.stream(ids).boxed().toList();
+    }
+}
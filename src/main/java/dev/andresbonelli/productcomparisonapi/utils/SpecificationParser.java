@@ -0,0 +1,144 @@
+package dev.andresbonelli.productcomparisonapi.utils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Parses "Key: Value, Key: Value" product specifications into attributes.
+ * The first number with a known unit in a value becomes its measure, converted to the unit's base:
+ * storage/memory to GB, battery capacity to mAh, frequency to Hz and weight to kg. Bare grams ("1200g")
+ * count only in attributes named like a weight.
+ */
+public final class SpecificationParser {
+    /** Scale of stored measures, see the product_attribute.numeric_value column */
+    public static final int MEASURE_SCALE = 4;
+
+    // A comma only ends an attribute when "Key:" follows, so values may contain commas
+    private static final Pattern ATTRIBUTE_SEPARATOR = Pattern.compile(",\\s*(?=[^,:]+:)");
+    private static final String NUMBER_AND_UNIT = "(\\d+(?:\\.\\d+)?)\\s*(tb|gb|mb|mah|ah|ghz|mhz|khz|hz|kg|lbs?%s)(?![a-z])";
+    private static final Pattern MEASURE = Pattern.compile(NUMBER_AND_UNIT.formatted(""), Pattern.CASE_INSENSITIVE);
+    // Bare grams only under a weight label: elsewhere "5G" is a network generation, not 0.005 kg
+    private static final Pattern WEIGHT_MEASURE = Pattern.compile(
+            NUMBER_AND_UNIT.formatted("|g"), Pattern.CASE_INSENSITIVE);
+    private static final String WEIGHT_LABEL = "weight";
+    private static final Pattern QUERY_VALUE = Pattern.compile(
+            "(\\d+(?:\\.\\d+)?)\\s*([a-z]*)", Pattern.CASE_INSENSITIVE);
+    private static final Map<String, Unit> UNITS = Map.ofEntries(
+            Map.entry("tb", new Unit("gb", "1024")),
+            Map.entry("gb", new Unit("gb", "1")),
+            Map.entry("mb", new Unit("gb", "0.0009765625")),
+            Map.entry("mah", new Unit("mah", "1")),
+            Map.entry("ah", new Unit("mah", "1000")),
+            Map.entry("ghz", new Unit("hz", "1000000000")),
+            Map.entry("mhz", new Unit("hz", "1000000")),
+            Map.entry("khz", new Unit("hz", "1000")),
+            Map.entry("hz", new Unit("hz", "1")),
+            Map.entry("kg", new Unit("kg", "1")),
+            Map.entry("g", new Unit("kg", "0.001")),
+            Map.entry("lb", new Unit("kg", "0.45359237")),
+            Map.entry("lbs", new Unit("kg", "0.45359237"))
+    );
+
+    private SpecificationParser() {
+    }
+
+    /**
+     * @param name normalized attribute name (see {@link #normalizeName})
+     * @param measure null if the value holds no number with a known unit
+     */
+    public record Attribute(String name, String value, Measure measure) {
+    }
+
+    /**
+     * A number in the base unit of its family (gb, mah, hz or kg)
+     */
+    public record Measure(BigDecimal value, String unit) {
+    }
+
+    private record Unit(String base, String factor) {
+    }
+
+    /**
+     * Attributes of a specifications text, in order. Later duplicates of a name replace earlier ones;
+     * fragments without a "Key:" prefix stay part of the previous value.
+     */
+    public static List<Attribute> parse(String specifications) {
+        Map<String, Attribute> attributes = new LinkedHashMap<>();
+        if (null == specifications || specifications.isBlank()) {
+            return List.of();
+        }
+        for (String pair : ATTRIBUTE_SEPARATOR.split(specifications.trim())) {
+            int colon = pair.indexOf(':');
+            if (colon <= 0) {
+                continue;
+            }
+            String name = normalizeName(pair.substring(0, colon));
+            String value = pair.substring(colon + 1).trim();
+            if (name.isEmpty() || value.isEmpty()) {
+                continue;
+            }
+            Pattern measure = name.contains(WEIGHT_LABEL) ? WEIGHT_MEASURE : MEASURE;
+            attributes.put(name, new Attribute(name, value, findMeasure(measure, value).orElse(null)));
+        }
+        return new ArrayList<>(attributes.values());
+    }
+
+    /**
+     * Lower-cased name with single spaces, e.g. " Graphics  Card" gives "graphics card"
+     */
+    public static String normalizeName(String name) {
+        return name.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * First number followed by a known unit anywhere in the text, e.g. "5000mAh with 45W fast charging".
+     * Grams are not recognized here, see {@link #parse} for weight attributes.
+     */
+    public static Optional<Measure> findMeasure(String text) {
+        return findMeasure(MEASURE, text);
+    }
+
+    private static Optional<Measure> findMeasure(Pattern measure, String text) {
+        Matcher matcher = measure.matcher(text);
+        if (!matcher.find()) {
+            return Optional.empty();
+        }
+        return Optional.of(toBase(new BigDecimal(matcher.group(1)), matcher.group(2)));
+    }
+
+    /**
+     * A filter value: a number with an optional known unit and nothing else, e.g. "16GB", "1.5 kg" or "4"
+     * @return the measure, with a null unit if none was given
+     * @throws IllegalArgumentException if the text is not such a value
+     */
+    public static Measure parseValue(String text) {
+        Matcher matcher = QUERY_VALUE.matcher(text.trim());
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Invalid attribute value '" + text + "', expected a number and unit");
+        }
+        BigDecimal number = new BigDecimal(matcher.group(1));
+        String unit = matcher.group(2);
+        if (unit.isEmpty()) {
+            return new Measure(number.setScale(MEASURE_SCALE, RoundingMode.HALF_UP), null);
+        }
+        if (!UNITS.containsKey(unit.toLowerCase(Locale.ROOT))) {
+            throw new IllegalArgumentException("Unknown unit '" + unit + "'. Use one of " + UNITS.keySet());
+        }
+        return toBase(number, unit);
+    }
+
+    private static Measure toBase(BigDecimal number, String unit) {
+        Unit known = UNITS.get(unit.toLowerCase(Locale.ROOT));
+        BigDecimal value = number.multiply(new BigDecimal(known.factor()))
+                .setScale(MEASURE_SCALE, RoundingMode.HALF_UP);
+        return new Measure(value, known.base());
+    }
+}
@@ -0,0 +1,40 @@
+package dev.andresbonelli.productcomparisonapi.utils;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Case and accent folding for in-memory name matching, so "Café" and "CAFE" compare equal as they do under
+ * MySQL 8's default accent-insensitive collation
+ * (utf8mb4_0900_ai_ci) compares the name column.
+ */
+public final class TextFolding {
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private TextFolding() {
+    }
+
+    /**
+     * The text lower-cased, with diacritics removed (decomposed, then combining marks dropped)
+     */
+    public static String fold(String text) {
+        if (null == text) {
+            return "";
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        if (isAscii(lower)) {
+            return lower;
+        }
+        return COMBINING_MARKS.matcher(Normalizer.normalize(lower, Normalizer.Form.NFD)).replaceAll("");
+    }
+
+    private static boolean isAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,59 @@
+package dev.andresbonelli.productcomparisonapi.utils;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket holding up to {@code capacity} tokens, refilled evenly over {@code period}.
+ * Implemented as a generic cell rate algorithm: the whole state is one theoretical arrival time updated by CAS.
+ */
+public class TokenBucket {
+    private final long capacity;
+    private final long periodNanos;
+    private final long emissionIntervalNanos;
+    private final AtomicLong theoreticalArrival;
+
+    public TokenBucket(long capacity, Duration period) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity should be greater than zero");
+        }
+        this.capacity = capacity;
+        this.periodNanos = period.toNanos();
+        this.emissionIntervalNanos = Math.max(1, periodNanos / capacity);
+        this.theoreticalArrival = new AtomicLong(System.nanoTime() - periodNanos);
+    }
+
+    /**
+     * @return true if a token was available and has been taken
+     */
+    public boolean tryConsume() {
+        long now = System.nanoTime();
+        while (true) {
+            long current = theoreticalArrival.get();
+            long next = Math.max(current, now - periodNanos) + emissionIntervalNanos;
+            if (next - now > 0) {
+                return false;
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    public long getAvailableTokens() {
+        long elapsed = System.nanoTime() - theoreticalArrival.get();
+        return Math.min(capacity, Math.max(0, elapsed / emissionIntervalNanos));
+    }
+
+    /**
+     * Time until the next token becomes available, zero if one is available now
+     */
+    public Duration getTimeToNextToken() {
+        long wait = theoreticalArrival.get() + emissionIntervalNanos - System.nanoTime();
+        return Duration.ofNanos(Math.max(0, wait));
+    }
+}
@@ -0,0 +1,197 @@
+package dev.andresbonelli.productcomparisonapi.utils;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Thread-safe inverted index from character trigrams to ids, for case- and accent-insensitive substring search
+ * (texts and queries are compared {@link TextFolding#fold folded}).
+ * A query is answered by intersecting the posting lists of its trigrams and verifying the survivors
+ * against the indexed text, so results are exact. Queries shorter than a trigram cannot be answered.
+ */
+public class TrigramIndex {
+    public static final int GRAM_LENGTH = 3;
+
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private final Map<Long, String> texts = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Index the text under the id, replacing any text indexed before
+     */
+    public void put(long id, String text) {
+        String normalized = normalize(text);
+        lock.writeLock().lock();
+        try {
+            String previous = texts.put(id, normalized);
+            if (normalized.equals(previous)) {
+                return;
+            }
+            Set<Long> removed = null == previous ? Set.of() : trigrams(previous);
+            Set<Long> added = trigrams(normalized);
+            for (Long gram : removed) {
+                if (!added.contains(gram)) {
+                    removePosting(gram, id);
+                }
+            }
+            for (Long gram : added) {
+                if (!removed.contains(gram)) {
+                    postings.computeIfAbsent(gram, g -> new Postings()).add(id);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            String previous = texts.remove(id);
+            if (null != previous) {
+                for (Long gram : trigrams(previous)) {
+                    removePosting(gram, id);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            texts.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return ascending ids whose text contains the query (ignoring case and accents),
+     * or null if the query is shorter than {@link #GRAM_LENGTH} and the index cannot answer it
+     */
+    public long[] search(String query) {
+        String normalized = normalize(query);
+        if (normalized.length() < GRAM_LENGTH) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            Set<Long> grams = trigrams(normalized);
+            Postings[] lists = new Postings[grams.size()];
+            int i = 0;
+            for (Long gram : grams) {
+                Postings list = postings.get(gram);
+                if (null == list) {
+                    return new long[0];
+                }
+                lists[i++] = list;
+            }
+            // Start from the rarest trigram, the candidates can only shrink from there
+            Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+            long[] result = new long[lists[0].size];
+            int count = 0;
+            for (int position = 0; position < lists[0].size; position++) {
+                long id = lists[0].ids[position];
+                if (containsInAll(lists, id) && texts.get(id).contains(normalized)) {
+                    result[count++] = id;
+                }
+            }
+            return Arrays.copyOf(result, count);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return texts.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int gramCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removePosting(Long gram, long id) {
+        Postings list = postings.get(gram);
+        if (null != list && list.remove(id) && list.size == 0) {
+            postings.remove(gram);
+        }
+    }
+
+    private static boolean containsInAll(Postings[] lists, long id) {
+        for (int i = 1; i < lists.length; i++) {
+            if (lists[i].indexOf(id) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String normalize(String text) {
+        return TextFolding.fold(text);
+    }
+
+    /**
+     * Distinct trigrams of the text, each packed into a long (three 16-bit chars)
+     */
+    private static Set<Long> trigrams(String text) {
+        Set<Long> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            grams.add(((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2));
+        }
+        return grams;
+    }
+
+    /**
+     * Sorted, growable list of ids. New ids are usually the highest, so adding is mostly an append.
+     */
+    private static final class Postings {
+        private long[] ids = new long[4];
+        private int size;
+
+        void add(long id) {
+            int position = indexOf(id);
+            if (position >= 0) {
+                return;
+            }
+            position = -position - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            ids[position] = id;
+            size++;
+        }
+
+        boolean remove(long id) {
+            int position = indexOf(id);
+            if (position < 0) {
+                return false;
+            }
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            size--;
+            return true;
+        }
+
+        int indexOf(long id) {
+            return Arrays.binarySearch(ids, 0, size, id);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+-- Specification attributes extracted from product.specifications, one row per product and attribute
+CREATE TABLE IF NOT EXISTS product_attribute (
+         id             BIGINT AUTO_INCREMENT   PRIMARY KEY,
+         product_id     BIGINT                  NOT NULL,
+         name           VARCHAR(100)            NOT NULL,
+         text_value     VARCHAR(255)            NOT NULL,
+         numeric_value  DECIMAL(19, 4)          NULL,     -- in the base unit below
+         unit           VARCHAR(16)             NULL,     -- gb, mah, hz or kg
+         CONSTRAINT uk_product_attribute UNIQUE (product_id, name)
+);
+
+-- Range filters: attribute name (and unit) equality, then a range on the value; covers product_id
+CREATE INDEX idx_product_attribute_numeric ON product_attribute (name, unit, numeric_value, product_id);
+
+-- Progress of the backfill for products stored before extraction on write existed
+CREATE TABLE IF NOT EXISTS product_attribute_backfill (
+         id               INT                   PRIMARY KEY,
+         last_product_id  BIGINT                NOT NULL,
+         completed_at     TIMESTAMP             NULL
+);
+
+INSERT INTO product_attribute_backfill (id, last_product_id) VALUES (1, 0);
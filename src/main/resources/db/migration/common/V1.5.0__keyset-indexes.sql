@@ -0,0 +1,4 @@
+-- Keyset pagination seeks past (sort column, id) for every supported sort; id breaks ties
+CREATE INDEX idx_product_price ON product (price, id);
+CREATE INDEX idx_product_rating ON product (rating, id);
+CREATE INDEX idx_product_name ON product (name, id);
@@ -0,0 +1,5 @@
+-- Lower-cased name maintained by the database, so name filters compare a plain indexed column
+-- instead of evaluating LOWER(name) on every row
+ALTER TABLE product ADD COLUMN name_lower VARCHAR(255) GENERATED ALWAYS AS (LOWER(name));
+
+CREATE INDEX idx_product_name_lower ON product (name_lower, id);
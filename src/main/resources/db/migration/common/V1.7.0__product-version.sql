@@ -0,0 +1,2 @@
+-- Optimistic locking version, incremented on every update; also the product's ETag
+ALTER TABLE product ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
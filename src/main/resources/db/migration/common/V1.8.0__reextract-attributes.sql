@@ -0,0 +1,3 @@
+-- Attributes extracted before bare grams were limited to weight labels may hold "5G" as 0.005 kg;
+-- restarting the backfill re-extracts every product
+UPDATE product_attribute_backfill SET last_product_id = 0, completed_at = NULL WHERE id = 1;
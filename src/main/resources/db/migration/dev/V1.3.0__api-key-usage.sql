@@ -0,0 +1,2 @@
+ALTER TABLE api_key ADD COLUMN last_used_at TIMESTAMP NULL;
+ALTER TABLE api_key ADD COLUMN request_count BIGINT NOT NULL DEFAULT 0;
@@ -1,20 +1,42 @@
 package dev.andresbonelli.productcomparisonapi;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.JsonPath;
 import dev.andresbonelli.productcomparisonapi.api.dto.ProductDTO;
+import dev.andresbonelli.productcomparisonapi.api.dto.ProductFields;
+import dev.andresbonelli.productcomparisonapi.api.dto.ProductPatch;
+import dev.andresbonelli.productcomparisonapi.config.CacheConfig;
+import dev.andresbonelli.productcomparisonapi.scheduler.ProductAttributeBackfillJob;
+import dev.andresbonelli.productcomparisonapi.service.ProductBatchLoader;
+import dev.andresbonelli.productcomparisonapi.service.ProductComparisonService;
+import dev.andresbonelli.productcomparisonapi.service.ProductService;
+import dev.andresbonelli.productcomparisonapi.service.catalog.CatalogReadModel;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -33,6 +55,24 @@ class ProductComparisonIntegrationTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private ProductAttributeBackfillJob attributeBackfillJob;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductComparisonService productComparisonService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @MockitoSpyBean
+    private ProductBatchLoader productBatchLoader;
+
+    @MockitoSpyBean
+    private CatalogReadModel catalogReadModel;
+
 
     @Test
     void completeFlow() throws Exception {
@@ -150,6 +190,331 @@ class ProductComparisonIntegrationTest {
                 .andExpect(jsonPath("$.message").value("Validation error"));
     }
 
+    @Test
+    void fullTextSearch() throws Exception {
+        mockMvc.perform(get("/api/products/search")
+                        .param("q", "OLED 120Hz"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products[*].name",
+                        hasItems(containsString("Dell XPS"), containsString("Samsung"))))
+                .andExpect(jsonPath("$.products[*].name", not(hasItem(containsString("Sony")))));
+    }
+
+    @Test
+    void cursorPagination_matchesPageNumbers() throws Exception {
+        for (String sortBy : List.of("id", "name", "price", "rating")) {
+            List<Integer> expected = JsonPath.read(mockMvc.perform(get("/api/products/advancedSearch")
+                            .param("sortBy", sortBy)
+                            .param("sortDir", "desc")
+                            .param("size", "1000"))
+                    .andReturn().getResponse().getContentAsString(), "$.products[*].id");
+
+            List<Integer> walked = new ArrayList<>();
+            String cursor = "";
+            do {
+                String body = mockMvc.perform(get("/api/products/advancedSearch")
+                                .param("sortBy", sortBy)
+                                .param("sortDir", "desc")
+                                .param("size", "2")
+                                .param("cursor", cursor))
+                        .andExpect(status().isOk())
+                        .andReturn().getResponse().getContentAsString();
+                walked.addAll(JsonPath.read(body, "$.products[*].id"));
+                cursor = JsonPath.read(body, "$.nextCursor");
+            } while (null != cursor);
+
+            assertEquals(expected, walked, "sortBy=" + sortBy);
+        }
+    }
+
+    @Test
+    void cursorPagination_rejectsCursorOfOtherSearch() throws Exception {
+        String body = mockMvc.perform(get("/api/products")
+                        .param("size", "1")
+                        .param("cursor", ""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products", hasSize(1)))
+                .andReturn().getResponse().getContentAsString();
+        String cursor = JsonPath.read(body, "$.nextCursor");
+
+        mockMvc.perform(get("/api/products/advancedSearch")
+                        .param("sortBy", "price")
+                        .param("cursor", cursor))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void advancedSearch_countModes() throws Exception {
+        mockMvc.perform(get("/api/products/advancedSearch")
+                        .param("sortBy", "price")
+                        .param("sortDir", "desc")
+                        .param("size", "1")
+                        .param("count", "none"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products", hasSize(1)))
+                .andExpect(jsonPath("$.products[0].name", containsString("Dell XPS")))
+                .andExpect(jsonPath("$.pagination.totalElements").value(nullValue()))
+                .andExpect(jsonPath("$.pagination.isLast").value(false));
+
+        mockMvc.perform(get("/api/products/advancedSearch")
+                        .param("minRating", "4.6"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.pagination.totalElements").value(greaterThanOrEqualTo(2)))
+                .andExpect(jsonPath("$.pagination.isLast").value(true));
+
+        mockMvc.perform(get("/api/products/advancedSearch")
+                        .param("count", "sometimes"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void sparseFieldsets() throws Exception {
+        mockMvc.perform(get("/api/products")
+                        .param("fields", "summary"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products[0].id").exists())
+                .andExpect(jsonPath("$.products[0].name").exists())
+                .andExpect(jsonPath("$.products[0].price").exists())
+                .andExpect(jsonPath("$.products[0].description").doesNotExist())
+                .andExpect(jsonPath("$.products[0].specifications").doesNotExist())
+                .andExpect(jsonPath("$.pagination.totalElements").value(greaterThanOrEqualTo(3)));
+
+        String body = mockMvc.perform(get("/api/products/advancedSearch")
+                        .param("sortBy", "price")
+                        .param("sortDir", "desc")
+                        .param("size", "1")
+                        .param("cursor", "")
+                        .param("fields", "name"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products[0].name", containsString("Dell XPS")))
+                .andExpect(jsonPath("$.products[0].price").doesNotExist())
+                .andReturn().getResponse().getContentAsString();
+        mockMvc.perform(get("/api/products/advancedSearch")
+                        .param("sortBy", "price")
+                        .param("sortDir", "desc")
+                        .param("size", "1")
+                        .param("cursor", JsonPath.<String>read(body, "$.nextCursor"))
+                        .param("fields", "name"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products[0].name", containsString("Samsung")));
+
+        mockMvc.perform(get("/api/products/compare")
+                        .param("ids", "1", "2")
+                        .param("fields", "name,rating"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[*].rating", hasSize(2)))
+                .andExpect(jsonPath("$[*].imageUrl", empty()));
+
+        mockMvc.perform(get("/api/products/advancedSearch")
+                        .param("fields", "name,weight"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void export() throws Exception {
+        MvcResult ndjson = mockMvc.perform(get("/api/products/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = body.split("\n");
+        assertEquals(JsonPath.<Integer>read(mockMvc.perform(get("/api/products"))
+                .andReturn().getResponse().getContentAsString(), "$.pagination.totalElements"), lines.length);
+        assertEquals(1, JsonPath.<Integer>read(lines[0], "$.id"));
+
+        MvcResult csv = mockMvc.perform(get("/api/products/export")
+                        .param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(csv))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", containsString("products.csv")))
+                .andExpect(content().string(startsWith(
+                        "id,name,imageUrl,description,price,rating,specifications\r\n1,Dell XPS 15 Laptop,")));
+
+        mockMvc.perform(get("/api/products/export")
+                        .param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void bulkImport() throws Exception {
+        String ndjson = """
+                {"name":"Import Test Phone","imageUrl":"http://test.com/1.jpg","description":"Phone","price":199.5,"rating":4.1,"specifications":"RAM: 4GB"}
+
+                {"name":"Import Test Broken","imageUrl":"http://test.com/2.jpg","description":"Bad","price":-1,"rating":4.1,"specifications":"RAM: 4GB"}
+                null
+                {"name":
+                """;
+        mockMvc.perform(post("/api/products/import")
+                        .contentType("application/x-ndjson")
+                        .content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rows").value(4))
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.failed").value(3))
+                .andExpect(jsonPath("$.errors[0].row").value(2))
+                .andExpect(jsonPath("$.errors[0].message", containsString("price")))
+                .andExpect(jsonPath("$.errors[1].row").value(3))
+                .andExpect(jsonPath("$.errors[1].message", containsString("null")))
+                .andExpect(jsonPath("$.errors[2].row").value(4));
+
+        String csv = "name,imageUrl,description,price,rating,specifications\r\n"
+                + "Import Test Tablet,http://test.com/3.jpg,\"Tablet, 11\"\"\",349.99,4.4,\"RAM: 8GB, Storage: 128GB\"\r\n";
+        mockMvc.perform(post("/api/products/import")
+                        .param("format", "csv")
+                        .contentType("text/csv")
+                        .content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1));
+
+        String body = mockMvc.perform(get("/api/products/advancedSearch")
+                        .param("name", "Import Test"))
+                .andExpect(jsonPath("$.products", hasSize(2)))
+                .andExpect(jsonPath("$.products[?(@.name == 'Import Test Tablet')].description",
+                        contains("Tablet, 11\"")))
+                .andReturn().getResponse().getContentAsString();
+        for (Integer id : JsonPath.<List<Integer>>read(body, "$.products[*].id")) {
+            mockMvc.perform(delete("/api/products/" + id)).andExpect(status().isNoContent());
+        }
+
+        mockMvc.perform(post("/api/products/import")
+                        .param("format", "csv")
+                        .contentType("text/csv")
+                        .content("name,weight\r\n"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void patchProduct() throws Exception {
+        mockMvc.perform(patch("/api/products/3")
+                        .contentType(ProductPatch.MEDIA_TYPE)
+                        .content("{\"id\": 3, \"rating\": 4.6}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rating").value(4.6))
+                .andExpect(jsonPath("$.name", containsString("Sony")));
+        mockMvc.perform(get("/api/products/3"))
+                .andExpect(jsonPath("$.rating").value(4.6))
+                .andExpect(jsonPath("$.price").value(399.99));
+        mockMvc.perform(patch("/api/products/3")
+                        .contentType(ProductPatch.MEDIA_TYPE)
+                        .content("{\"rating\": 4.7}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(patch("/api/products/3")
+                        .contentType(ProductPatch.MEDIA_TYPE)
+                        .content("{\"rating\": 7}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.details", containsString("rating")));
+        mockMvc.perform(patch("/api/products/3")
+                        .contentType(ProductPatch.MEDIA_TYPE)
+                        .content("{\"name\": null}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(patch("/api/products/99999")
+                        .contentType(ProductPatch.MEDIA_TYPE)
+                        .content("{\"price\": 10}"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void conditionalPut() throws Exception {
+        ProductDTO product = new ProductDTO(null, "Conditional Put Product", "http://test.com/put.jpg",
+                "Before", new BigDecimal("10.00"), 4.0, "RAM: 4GB");
+        MvcResult created = mockMvc.perform(post("/api/products")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(product)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        Long id = objectMapper.readValue(created.getResponse().getContentAsString(), ProductDTO.class).id();
+        String readTag = mockMvc.perform(get("/api/products/" + id))
+                .andReturn().getResponse().getHeader("ETag");
+        String first = objectMapper.writeValueAsString(new ProductDTO(id, product.name(), product.imageUrl(),
+                "First writer", product.price(), product.rating(), product.specifications()));
+        String second = objectMapper.writeValueAsString(new ProductDTO(id, product.name(), product.imageUrl(),
+                "Second writer", product.price(), product.rating(), product.specifications()));
+
+        String writtenTag = mockMvc.perform(put("/api/products")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("If-Match", readTag)
+                        .content(first))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.description").value("First writer"))
+                .andReturn().getResponse().getHeader("ETag");
+        assertNotEquals(readTag, writtenTag);
+        // The second writer read the same version and must not overwrite the first
+        mockMvc.perform(put("/api/products")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("If-Match", readTag)
+                        .content(second))
+                .andExpect(status().isConflict());
+        mockMvc.perform(put("/api/products")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("If-Match", "W/" + writtenTag)
+                        .content(second))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/products/" + id))
+                .andExpect(jsonPath("$.description").value("First writer"));
+
+        mockMvc.perform(delete("/api/products/" + id))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    void conditionalGet() throws Exception {
+        String productTag = mockMvc.perform(get("/api/products/2"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", startsWith("\"")))
+                .andReturn().getResponse().getHeader("ETag");
+        String listTag = mockMvc.perform(get("/api/products/advancedSearch").param("minRating", "4.5"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", startsWith("W/\"")))
+                .andReturn().getResponse().getHeader("ETag");
+        mockMvc.perform(get("/api/products/2").header("If-None-Match", productTag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/products/advancedSearch").param("minRating", "4.5")
+                        .header("If-None-Match", listTag))
+                .andExpect(status().isNotModified());
+
+        // Any write moves the catalog version on; only the written product gets a new ETag
+        mockMvc.perform(patch("/api/products/2")
+                        .contentType(ProductPatch.MEDIA_TYPE)
+                        .content("{\"rating\": 4.9}"))
+                .andExpect(status().isOk());
+        String patchedTag = mockMvc.perform(get("/api/products/2").header("If-None-Match", productTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rating").value(4.9))
+                .andReturn().getResponse().getHeader("ETag");
+        assertNotEquals(productTag, patchedTag);
+        mockMvc.perform(get("/api/products/advancedSearch").param("minRating", "4.5")
+                        .header("If-None-Match", listTag))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/products/1").header("If-None-Match", "\"0\""))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(patch("/api/products/2")
+                        .contentType(ProductPatch.MEDIA_TYPE)
+                        .content("{\"rating\": 4.8}"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void attributeFilter() throws Exception {
+        attributeBackfillJob.run();
+
+        mockMvc.perform(get("/api/products/advancedSearch")
+                        .param("attr.RAM>", "16GB"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products[*].name", hasItem(containsString("Dell XPS"))))
+                .andExpect(jsonPath("$.products[*].name", not(hasItem(containsString("Samsung")))));
+
+        mockMvc.perform(get("/api/products/advancedSearch")
+                        .param("attr.RAM>", "lots"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void productComparison() throws Exception {
         mockMvc.perform(get("/api/products/compare")
@@ -161,6 +526,19 @@ class ProductComparisonIntegrationTest {
                 .andExpect(jsonPath("$[2].id").exists());
     }
 
+    @Test
+    void productComparison_matrix() throws Exception {
+        mockMvc.perform(get("/api/products/compare")
+                        .param("ids", "2", "1", "2")
+                        .param("matrix", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products[*].id", contains(1, 2)))
+                .andExpect(jsonPath("$.sharedAttributes", hasItems("processor", "ram", "storage")))
+                .andExpect(jsonPath("$.attributes[?(@.name == 'ram')].unit", contains("gb")))
+                .andExpect(jsonPath("$.attributes[?(@.name == 'ram')].best[0]", contains(1)))
+                .andExpect(jsonPath("$.attributes[?(@.name == 'ram')].worst[0]", contains(2)));
+    }
+
     @Test
     void productComparison_nonExisting() throws Exception {
         mockMvc.perform(get("/api/products/compare")
@@ -170,4 +548,42 @@ class ProductComparisonIntegrationTest {
                 .andExpect(jsonPath("$.details", containsString("99999")));
     }
 
+    @Test
+    void productComparison_partial() throws Exception {
+        mockMvc.perform(get("/api/products/compare")
+                        .param("ids", "2", "99999", "1", "2")
+                        .param("partial", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products[*].id", contains(2, 1)))
+                .andExpect(jsonPath("$.missingIds", contains(99999)));
+    }
+
+    @Test
+    void productComparison_tooManyIds() {
+        // Above app.compare.max-ids whether the loader or the read model would serve them
+        List<Long> ids = LongStream.rangeClosed(1, 1001).boxed().toList();
+
+        assertThrows(IllegalArgumentException.class, () -> productComparisonService.compare(ids));
+        assertThrows(IllegalArgumentException.class, () -> productService.findProductsByIds(ids, ProductFields.ALL));
+    }
+
+    @Test
+    void productComparison_readsWithoutTransaction() {
+        // Whichever source serves the ids, the calling thread must not hold a connection while it waits
+        List<Boolean> transactionActive = new ArrayList<>();
+        doAnswer(invocation -> {
+            transactionActive.add(TransactionSynchronizationManager.isActualTransactionActive());
+            return invocation.callRealMethod();
+        }).when(productBatchLoader).load(anyList(), any(ProductFields.class));
+        doAnswer(invocation -> {
+            transactionActive.add(TransactionSynchronizationManager.isActualTransactionActive());
+            return invocation.callRealMethod();
+        }).when(catalogReadModel).findAllById(anyList());
+        cacheManager.getCache(CacheConfig.COMPARISON_CACHE).clear();
+
+        productComparisonService.compare(List.of(1L, 2L));
+
+        assertEquals(List.of(false), transactionActive);
+    }
+
 }
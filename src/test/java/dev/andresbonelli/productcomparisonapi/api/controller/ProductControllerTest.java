@@ -3,8 +3,14 @@ package dev.andresbonelli.productcomparisonapi.api.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import dev.andresbonelli.productcomparisonapi.api.dto.PagedProducts;
 import dev.andresbonelli.productcomparisonapi.api.dto.ProductDTO;
+import dev.andresbonelli.productcomparisonapi.api.dto.ProductFields;
 import dev.andresbonelli.productcomparisonapi.domain.exception.ResourceNotFoundException;
+import dev.andresbonelli.productcomparisonapi.service.ProductComparisonService;
+import dev.andresbonelli.productcomparisonapi.service.ProductExportService;
+import dev.andresbonelli.productcomparisonapi.service.ProductImportService;
 import dev.andresbonelli.productcomparisonapi.service.ProductService;
+import dev.andresbonelli.productcomparisonapi.service.VersionedProduct;
+import dev.andresbonelli.productcomparisonapi.service.catalog.CatalogVersion;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -20,6 +26,8 @@ import java.math.BigDecimal;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -40,6 +48,18 @@ class ProductControllerTest {
     @MockitoBean
     private ProductService productService;
 
+    @MockitoBean
+    private ProductComparisonService productComparisonService;
+
+    @MockitoBean
+    private ProductExportService productExportService;
+
+    @MockitoBean
+    private ProductImportService productImportService;
+
+    @MockitoBean
+    private CatalogVersion catalogVersion;
+
     private ProductDTO testProductDTO;
     private List<ProductDTO> productList;
     private Page<ProductDTO> productPage;
@@ -64,7 +84,7 @@ class ProductControllerTest {
     void getAllProducts() throws Exception {
         // Arrange
         var result = new PagedProducts<>(productPage);
-        when(productService.getAllProducts(0,10)).thenReturn(result);
+        when(productService.getAllProducts(0, 10, ProductFields.ALL)).thenReturn(result);
 
         // Act & Assert
         mockMvc.perform(get("/api/products")
@@ -81,16 +101,44 @@ class ProductControllerTest {
     @Test
     void getProductById() throws Exception {
         // Arrange
-        when(productService.getProductById(1L)).thenReturn(testProductDTO);
+        when(productService.getProductById(1L)).thenReturn(new VersionedProduct(testProductDTO, 4));
 
         // Act & Assert
         mockMvc.perform(get("/api/products/1")
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""))
                 .andExpect(jsonPath("$.id").value(1))
                 .andExpect(jsonPath("$.name").value("Test Product"));
     }
 
+    @Test
+    void getProductById_notModified() throws Exception {
+        // Arrange
+        when(productService.getProductVersion(1L)).thenReturn(4L);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/products/1")
+                        .header("If-None-Match", "\"4\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"4\""))
+                .andExpect(content().string(""));
+        verify(productService, never()).getProductById(anyLong());
+    }
+
+    @Test
+    void getAllProducts_notModified() throws Exception {
+        // Arrange
+        when(catalogVersion.current()).thenReturn("abc-7");
+
+        // Act & Assert
+        mockMvc.perform(get("/api/products")
+                        .header("If-None-Match", "W/\"abc-6\", W/\"abc-7\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "W/\"abc-7\""));
+        verify(productService, never()).getAllProducts(anyInt(), anyInt(), any());
+    }
+
     @Test
     void getProductById_notFound() throws Exception {
         // Arrange
@@ -108,7 +156,7 @@ class ProductControllerTest {
     @Test
     void compareProducts() throws Exception {
         // Arrange
-        when(productService.getProductsByIds(anyList())).thenReturn(productList);
+        when(productService.getProductsByIds(anyList(), any())).thenReturn(productList);
 
         // Act & Assert
         mockMvc.perform(get("/api/products/compare")
@@ -146,8 +194,8 @@ class ProductControllerTest {
                 testProductDTO.rating(),
                 testProductDTO.specifications()
         );
-        when(productService.updateProduct(anyLong(), any(ProductDTO.class)))
-                .thenReturn(updatedProductDTO);
+        when(productService.updateProduct(anyLong(), any(ProductDTO.class), isNull()))
+                .thenReturn(new VersionedProduct(updatedProductDTO, 1L));
 
         // Act & Assert
         mockMvc.perform(put("/api/products")
@@ -156,7 +204,22 @@ class ProductControllerTest {
                         .with(csrf()))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id").value(1))
-                .andExpect(jsonPath("$.name").value("Updated Product"));
+                .andExpect(jsonPath("$.name").value("Updated Product"))
+                .andExpect(header().string("ETag", "\"1\""));
+    }
+
+    @Test
+    void updateProduct_ifMatchPassesVersion() throws Exception {
+        when(productService.updateProduct(anyLong(), any(ProductDTO.class), eq(4L)))
+                .thenReturn(new VersionedProduct(testProductDTO, 5L));
+
+        mockMvc.perform(put("/api/products")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("If-Match", "\"4\"")
+                        .content(objectMapper.writeValueAsString(testProductDTO))
+                        .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"5\""));
     }
 
     @Test
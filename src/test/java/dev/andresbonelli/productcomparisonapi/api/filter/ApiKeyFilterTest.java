@@ -0,0 +1,112 @@
+package dev.andresbonelli.productcomparisonapi.api.filter;
+
+import dev.andresbonelli.productcomparisonapi.domain.entity.ApiKey;
+import dev.andresbonelli.productcomparisonapi.domain.entity.Role;
+import dev.andresbonelli.productcomparisonapi.service.ApiKeyBloomFilter;
+import dev.andresbonelli.productcomparisonapi.service.ApiKeyRateLimiter;
+import dev.andresbonelli.productcomparisonapi.service.ApiKeyService;
+import dev.andresbonelli.productcomparisonapi.service.ApiKeyUsageTracker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ApiKeyFilter with an anonymous limit of two and a user limit of three requests per minute
+ */
+class ApiKeyFilterTest {
+
+    private ApiKeyService apiKeyService;
+    private ApiKeyBloomFilter bloomFilter;
+    private ApiKeyFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        apiKeyService = mock(ApiKeyService.class);
+        bloomFilter = mock(ApiKeyBloomFilter.class);
+        ApiKeyRateLimiter rateLimiter = new ApiKeyRateLimiter(true, Duration.ofMinutes(1), 1000, 300, 3, 2, 100, 100);
+        filter = new ApiKeyFilter(apiKeyService, bloomFilter, mock(ApiKeyUsageTracker.class), rateLimiter);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void invalidKey_countsAgainstAnonymousLimit() throws Exception {
+        when(bloomFilter.mightContain("guessed")).thenReturn(true);
+        when(apiKeyService.validate("guessed")).thenReturn(Optional.empty());
+
+        assertEquals(200, get("guessed", "10.0.0.1").getStatus());
+        assertEquals(200, get("guessed", "10.0.0.1").getStatus());
+        assertEquals(429, get("guessed", "10.0.0.1").getStatus());
+        assertEquals(200, get("guessed", "10.0.0.2").getStatus());
+    }
+
+    @Test
+    void anonymousLimitExhausted_validKeyStillAuthenticates() throws Exception {
+        when(bloomFilter.mightContain("guessed")).thenReturn(true);
+        when(apiKeyService.validate("guessed")).thenReturn(Optional.empty());
+        get("guessed", "10.0.0.1");
+        get("guessed", "10.0.0.1");
+        assertEquals(429, get("guessed", "10.0.0.1").getStatus());
+
+        when(bloomFilter.mightContain("valid")).thenReturn(true);
+        when(apiKeyService.validate("valid")).thenReturn(Optional.of(userKey()));
+
+        assertEquals(200, get("valid", "10.0.0.1").getStatus());
+    }
+
+    @Test
+    void validKey_limitedByRoleNotAnonymous() throws Exception {
+        when(bloomFilter.mightContain("valid")).thenReturn(true);
+        when(apiKeyService.validate("valid")).thenReturn(Optional.of(userKey()));
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, get("valid", "10.0.0.1").getStatus());
+        }
+        assertEquals(429, get("valid", "10.0.0.1").getStatus());
+    }
+
+    @Test
+    void validKey_quotaSurvivesReload() throws Exception {
+        when(bloomFilter.mightContain("valid")).thenReturn(true);
+        when(apiKeyService.validate("valid")).thenReturn(Optional.of(userKey()));
+        for (int i = 0; i < 3; i++) {
+            get("valid", "10.0.0.1");
+        }
+
+        // The validation cache entry expired and the key was read again as a new instance
+        when(apiKeyService.validate("valid")).thenReturn(Optional.of(userKey()));
+
+        assertEquals(429, get("valid", "10.0.0.1").getStatus());
+    }
+
+    private static ApiKey userKey() {
+        ApiKey apiKey = new ApiKey();
+        apiKey.setId(1L);
+        apiKey.setKeyValue("valid");
+        apiKey.setRole(Role.USER);
+        apiKey.setActive(true);
+        return apiKey;
+    }
+
+    private MockHttpServletResponse get(String key, String remoteAddress) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products");
+        request.setRemoteAddr(remoteAddress);
+        request.addHeader("X-API-KEY", key);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
@@ -0,0 +1,137 @@
+package dev.andresbonelli.productcomparisonapi.api.filter;
+
+import dev.andresbonelli.productcomparisonapi.service.ProductChangedEvent;
+import dev.andresbonelli.productcomparisonapi.service.catalog.CatalogVersion;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ResponseCacheFilter with a servlet counting how often it really runs
+ */
+class ResponseCacheFilterTest {
+
+    private static final String BODY = "{\"products\":[" + "{\"id\":1,\"name\":\"Product\"},".repeat(100) + "{}]}";
+
+    private final AtomicInteger calls = new AtomicInteger();
+    private CatalogVersion catalogVersion;
+    private ResponseCacheFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        catalogVersion = new CatalogVersion();
+        filter = new ResponseCacheFilter(catalogVersion, 1 << 20, 1 << 16, 2048, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void hit_writesCachedBytesWithoutCallingController() throws Exception {
+        MockHttpServletResponse first = get("/api/products", "size=10&page=2", null);
+        MockHttpServletResponse second = get("/api/products", "page=2&size=10", null);
+
+        assertEquals(1, calls.get());
+        assertEquals(BODY, first.getContentAsString());
+        assertEquals(BODY, second.getContentAsString());
+        assertEquals("W/\"v1\"", second.getHeader("ETag"));
+        assertEquals("application/json", second.getContentType());
+    }
+
+    @Test
+    void hit_servesGzipVariantWhenAccepted() throws Exception {
+        get("/api/products", "page=1", null);
+        MockHttpServletResponse gzipped = get("/api/products", "page=1", "gzip, deflate");
+
+        assertEquals(1, calls.get());
+        assertEquals("gzip", gzipped.getHeader("Content-Encoding"));
+        assertEquals(BODY, new String(
+                new GZIPInputStream(new ByteArrayInputStream(gzipped.getContentAsByteArray())).readAllBytes()));
+        assertEquals("Accept-Encoding", gzipped.getHeader("Vary"));
+    }
+
+    @Test
+    void hit_answersNotModified() throws Exception {
+        get("/api/products/compare", "ids=1&ids=2", null);
+        MockHttpServletRequest request = request("/api/products/compare", "ids=1&ids=2", null);
+        request.addHeader("If-None-Match", "W/\"v1\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain(new JsonServlet()));
+
+        assertEquals(1, calls.get());
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentLength());
+    }
+
+    @Test
+    void productWrite_invalidatesEntries() throws Exception {
+        get("/api/products/advancedSearch", "minRating=4", null);
+        ProductChangedEvent event = ProductChangedEvent.deleted(1L);
+        filter.onProductChanged(event);
+        catalogVersion.onProductChanged(event);
+        get("/api/products/advancedSearch", "minRating=4", null);
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void entryComputedDuringWrite_isNotServed() throws Exception {
+        get("/api/products/1", "", null);
+        // The write's cache clearing ran before this response was stored; only the version moves on after it
+        catalogVersion.onProductChanged(ProductChangedEvent.deleted(1L));
+        get("/api/products/1", "", null);
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void otherRequests_areNotCached() throws Exception {
+        get("/api/products/export", "", null);
+        get("/api/products/export", "", null);
+        get("/api/keys", "", null);
+        get("/api/keys", "", null);
+
+        assertEquals(4, calls.get());
+    }
+
+    private MockHttpServletResponse get(String path, String query, String acceptEncoding) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(path, query, acceptEncoding), response, new MockFilterChain(new JsonServlet()));
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String path, String query, String acceptEncoding) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setQueryString(query);
+        for (String parameter : query.split("&")) {
+            if (!parameter.isEmpty()) {
+                String[] pair = parameter.split("=");
+                request.addParameter(pair[0], pair[1]);
+            }
+        }
+        if (null != acceptEncoding) {
+            request.addHeader("Accept-Encoding", acceptEncoding);
+        }
+        return request;
+    }
+
+    private class JsonServlet extends HttpServlet {
+        @Override
+        protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            calls.incrementAndGet();
+            response.setContentType("application/json");
+            response.setHeader("ETag", "W/\"v1\"");
+            response.getWriter().write(BODY);
+        }
+    }
+}
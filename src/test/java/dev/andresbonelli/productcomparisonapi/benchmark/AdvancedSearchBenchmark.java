@@ -0,0 +1,228 @@
+package dev.andresbonelli.productcomparisonapi.benchmark;
+
+import dev.andresbonelli.productcomparisonapi.api.dto.ProductDTO;
+import dev.andresbonelli.productcomparisonapi.api.dto.ProductSearchCriteria;
+import dev.andresbonelli.productcomparisonapi.service.catalog.CatalogSnapshot;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Price/rating range searches on the in-memory catalog snapshot versus the same page and count queries
+ * that advancedSearch issues against H2 (MySQL mode). The catch-all variants run the single
+ * {@code (? IS NULL OR ...)} statement advancedSearch used before it built only the supplied predicates.
+ * <p>
+ * Not a unit test; run {@link #main} from the IDE or with the test classpath, e.g.
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=dev.andresbonelli.productcomparisonapi.benchmark.AdvancedSearchBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AdvancedSearchBenchmark {
+
+    private static final String[] BRANDS = {"Sony", "Samsung", "Dell", "Apple", "Lenovo", "Asus", "Xiaomi", "LG"};
+    private static final String[] KINDS = {"Laptop", "Phone", "Headphones", "Monitor", "Tablet", "Watch"};
+    private static final int PAGE_SIZE = 20;
+    private static final String COLUMNS = "SELECT id, name, image_url, description, price, rating, specifications";
+    private static final String CATCH_ALL = " FROM product WHERE (? IS NULL OR LOWER(name) LIKE ?)"
+            + " AND (? IS NULL OR price >= ?) AND (? IS NULL OR price <= ?) AND (? IS NULL OR rating >= ?)";
+
+    @Param({"10000", "100000", "1000000"})
+    public int products;
+
+    private CatalogSnapshot snapshot;
+    private Connection connection;
+    private ProductSearchCriteria priceRange;
+    private ProductSearchCriteria topRated;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        Random random = new Random(products);
+        List<ProductDTO> catalog = new ArrayList<>(products);
+        for (long id = 1; id <= products; id++) {
+            String name = BRANDS[random.nextInt(BRANDS.length)] + " " + KINDS[random.nextInt(KINDS.length)]
+                    + " " + random.nextInt(1000);
+            BigDecimal price = BigDecimal.valueOf(1000 + random.nextInt(300_000), 2);
+            double rating = random.nextInt(51) / 10.0;
+            catalog.add(new ProductDTO(id, name, "https://example.com/" + id + ".png", "Description",
+                    price, rating, "RAM: 8GB"));
+        }
+        snapshot = CatalogSnapshot.of(catalog);
+
+        connection = DriverManager.getConnection("jdbc:h2:mem:bench" + products + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS product");
+            statement.execute("""
+                    CREATE TABLE product (
+                             id             BIGINT AUTO_INCREMENT   PRIMARY KEY,
+                             name           VARCHAR(255)            NOT NULL,
+                             image_url      VARCHAR(255)            NOT NULL,
+                             description    VARCHAR(500)            NOT NULL,
+                             price          DECIMAL(19, 2)          NOT NULL,
+                             rating         DOUBLE PRECISION        NOT NULL,
+                             specifications VARCHAR(1000)           NOT NULL,
+                             name_lower     VARCHAR(255)            GENERATED ALWAYS AS (LOWER(name))
+                    )""");
+            statement.execute("CREATE INDEX idx_product_price ON product (price, id)");
+            statement.execute("CREATE INDEX idx_product_rating ON product (rating, id)");
+            statement.execute("CREATE INDEX idx_product_name_lower ON product (name_lower, id)");
+        }
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO product (id, name, image_url, description, price, rating, specifications)"
+                        + " VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+            for (ProductDTO product : catalog) {
+                insert.setLong(1, product.id());
+                insert.setString(2, product.name());
+                insert.setString(3, product.imageUrl());
+                insert.setString(4, product.description());
+                insert.setBigDecimal(5, product.price());
+                insert.setDouble(6, product.rating());
+                insert.setString(7, product.specifications());
+                insert.addBatch();
+                if (product.id() % 10_000 == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+
+        priceRange = new ProductSearchCriteria(
+                "price", "asc", null, new BigDecimal("100"), new BigDecimal("150"), 4.0).normalized();
+        topRated = new ProductSearchCriteria(
+                "rating", "desc", "laptop", null, new BigDecimal("1000"), 4.5).normalized();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE product");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public void snapshotPriceRange(Blackhole blackhole) {
+        snapshotPage(priceRange, blackhole);
+    }
+
+    @Benchmark
+    public void sqlPriceRange(Blackhole blackhole) throws SQLException {
+        sqlPage(priceRange, "price ASC", blackhole);
+    }
+
+    @Benchmark
+    public void sqlCatchAllPriceRange(Blackhole blackhole) throws SQLException {
+        catchAllPage(priceRange, "price ASC", blackhole);
+    }
+
+    @Benchmark
+    public void snapshotTopRatedByName(Blackhole blackhole) {
+        snapshotPage(topRated, blackhole);
+    }
+
+    @Benchmark
+    public void sqlTopRatedByName(Blackhole blackhole) throws SQLException {
+        sqlPage(topRated, "rating DESC", blackhole);
+    }
+
+    @Benchmark
+    public void sqlCatchAllTopRatedByName(Blackhole blackhole) throws SQLException {
+        catchAllPage(topRated, "rating DESC", blackhole);
+    }
+
+    private void snapshotPage(ProductSearchCriteria criteria, Blackhole blackhole) {
+        int[] rows = snapshot.search(criteria);
+        blackhole.consume(snapshot.rows(rows, 0, Math.min(PAGE_SIZE, rows.length)));
+        blackhole.consume(rows.length);
+    }
+
+    private void sqlPage(ProductSearchCriteria criteria, String orderBy, Blackhole blackhole) throws SQLException {
+        List<Object> parameters = new ArrayList<>();
+        StringBuilder where = new StringBuilder(" FROM product");
+        String separator = " WHERE ";
+        if (null != criteria.getName()) {
+            where.append(separator).append("name_lower LIKE ?");
+            parameters.add("%" + criteria.getName() + "%");
+            separator = " AND ";
+        }
+        if (null != criteria.getMinPrice()) {
+            where.append(separator).append("price >= ?");
+            parameters.add(criteria.getMinPrice());
+            separator = " AND ";
+        }
+        if (null != criteria.getMaxPrice()) {
+            where.append(separator).append("price <= ?");
+            parameters.add(criteria.getMaxPrice());
+            separator = " AND ";
+        }
+        if (null != criteria.getMinRating()) {
+            where.append(separator).append("rating >= ?");
+            parameters.add(criteria.getMinRating());
+        }
+        runPage(where.toString(), orderBy + ", id", parameters, blackhole);
+    }
+
+    private void catchAllPage(ProductSearchCriteria criteria, String orderBy, Blackhole blackhole)
+            throws SQLException {
+        String name = null == criteria.getName() ? null : "%" + criteria.getName() + "%";
+        runPage(CATCH_ALL, orderBy, Arrays.asList(name, name, criteria.getMinPrice(), criteria.getMinPrice(),
+                criteria.getMaxPrice(), criteria.getMaxPrice(), criteria.getMinRating(), criteria.getMinRating()),
+                blackhole);
+    }
+
+    private void runPage(String where, String orderBy, List<Object> parameters, Blackhole blackhole)
+            throws SQLException {
+        try (PreparedStatement page = connection.prepareStatement(
+                COLUMNS + where + " ORDER BY " + orderBy + " LIMIT " + PAGE_SIZE + " OFFSET 0")) {
+            bind(page, parameters);
+            try (ResultSet resultSet = page.executeQuery()) {
+                while (resultSet.next()) {
+                    blackhole.consume(new ProductDTO(resultSet.getLong(1), resultSet.getString(2),
+                            resultSet.getString(3), resultSet.getString(4), resultSet.getBigDecimal(5),
+                            resultSet.getDouble(6), resultSet.getString(7)));
+                }
+            }
+        }
+        try (PreparedStatement count = connection.prepareStatement("SELECT COUNT(id)" + where)) {
+            bind(count, parameters);
+            try (ResultSet resultSet = count.executeQuery()) {
+                resultSet.next();
+                blackhole.consume(resultSet.getLong(1));
+            }
+        }
+    }
+
+    private static void bind(PreparedStatement statement, List<Object> parameters) throws SQLException {
+        for (int i = 0; i < parameters.size(); i++) {
+            statement.setObject(i + 1, parameters.get(i));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(AdvancedSearchBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
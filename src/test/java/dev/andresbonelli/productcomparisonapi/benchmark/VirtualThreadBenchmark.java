@@ -0,0 +1,169 @@
+package dev.andresbonelli.productcomparisonapi.benchmark;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+/**
+ * Blocking request handling on platform versus virtual threads: one operation is a wave of {@code clients}
+ * concurrent requests, each borrowing a Hikari connection and reading one product by id, as a
+ * GET /api/products/{id} cache miss does. Platform requests run on a pool of 200 threads (Tomcat's default
+ * server.tomcat.threads.max), virtual ones on a thread each. The datasource is H2 (MySQL mode) as is, or
+ * with {@code latencyMs} of simulated network and server time slept on every query.
+ * <p>
+ * With the pool smaller than the thread count, both modes queue on Hikari; virtual threads pay off once the
+ * pool is no longer the limit, or when requests spend time off the database. Add
+ * {@code -Djdk.tracePinnedThreads=short} to the fork to log carrier pinning.
+ * <p>
+ * Measured on Temurin 21.0.1 with one CPU: with the default pool of 10 both modes are within noise of each
+ * other (10000 clients at 2 ms: 2151 ms platform, 2259 ms virtual); with a pool of 100 and 2 ms latency virtual
+ * threads took 3.3/27/365 ms against 4.0/36/565 ms for 100/1000/10000 clients, and without latency they were
+ * no faster. Hence spring.threads.virtual.enabled stays off until the pool is raised.
+ * <p>
+ * Needs Java 21. Not a unit test; run {@link #main} from the IDE or with the test classpath, e.g.
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=dev.andresbonelli.productcomparisonapi.benchmark.VirtualThreadBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class VirtualThreadBenchmark {
+
+    private static final int PRODUCTS = 10_000;
+    private static final int PLATFORM_THREADS = 200;
+
+    @Param({"100", "1000", "10000"})
+    public int clients;
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    @Param({"0", "2"})
+    public int latencyMs;
+
+    @Param({"10", "100"})
+    public int poolSize;
+
+    private HikariDataSource dataSource;
+    private ExecutorService executor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:vthreads;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        try (Connection connection = h2.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS product");
+            statement.execute("CREATE TABLE product (id BIGINT PRIMARY KEY, name VARCHAR(255) NOT NULL,"
+                    + " price DECIMAL(19, 2) NOT NULL, rating DOUBLE PRECISION NOT NULL)");
+            statement.execute("INSERT INTO product SELECT x, 'Product ' || x, x % 3000, x % 51 / 10.0"
+                    + " FROM SYSTEM_RANGE(1, " + PRODUCTS + ")");
+        }
+
+        HikariConfig config = new HikariConfig();
+        config.setDataSource(latencyMs > 0 ? withLatency(h2, latencyMs) : h2);
+        config.setMaximumPoolSize(poolSize);
+        config.setMinimumIdle(poolSize);
+        config.setConnectionTimeout(TimeUnit.MINUTES.toMillis(1));
+        dataSource = new HikariDataSource(config);
+
+        executor = "virtual".equals(threads)
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(PLATFORM_THREADS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+        dataSource.close();
+    }
+
+    @Benchmark
+    public long wave() throws InterruptedException, ExecutionException {
+        List<Future<Long>> requests = new ArrayList<>(clients);
+        for (int i = 0; i < clients; i++) {
+            long id = 1 + i % PRODUCTS;
+            requests.add(executor.submit(() -> findPrice(id)));
+        }
+        long sum = 0;
+        for (Future<Long> request : requests) {
+            sum += request.get();
+        }
+        return sum;
+    }
+
+    private long findPrice(long id) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement select = connection.prepareStatement(
+                     "SELECT id, name, price, rating FROM product WHERE id = ?")) {
+            select.setLong(1, id);
+            try (ResultSet row = select.executeQuery()) {
+                return row.next() ? row.getLong("price") : 0;
+            }
+        }
+    }
+
+    /**
+     * The datasource with every statement execution delayed, as a remote database would be
+     */
+    private static DataSource withLatency(DataSource target, long millis) {
+        return proxy(DataSource.class, target, result -> result instanceof Connection connection
+                ? proxy(Connection.class, connection, statement -> statement instanceof PreparedStatement prepared
+                        ? delayed(prepared, millis)
+                        : statement)
+                : result);
+    }
+
+    private static PreparedStatement delayed(PreparedStatement target, long millis) {
+        return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, (self, method, args) -> {
+                    if (method.getName().startsWith("execute")) {
+                        Thread.sleep(millis);
+                    }
+                    return invoke(target, method, args);
+                });
+    }
+
+    private static <T> T proxy(Class<T> type, T target, UnaryOperator<Object> wrapResult) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (self, method, args) -> wrapResult.apply(invoke(target, method, args))));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(VirtualThreadBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,162 @@
+package dev.andresbonelli.productcomparisonapi.domain.repository;
+
+import dev.andresbonelli.productcomparisonapi.domain.entity.Product;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the SQL of the custom product queries: EXPLAIN plans of {@link ProductSpecifications} filter
+ * combinations, and the columns that projections and partial updates touch
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "dev.andresbonelli.productcomparisonapi.domain.repository.ProductQueryPlanTest$SqlCapture")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+class ProductQueryPlanTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        SqlCapture.STATEMENTS.clear();
+    }
+
+    @Test
+    void priceRange_usesPriceIndex() {
+        String plan = explain(ProductSpecifications.matching(null, new BigDecimal("100"), new BigDecimal("900"), null),
+                "price", new BigDecimal("100"), new BigDecimal("900"));
+
+        assertTrue(plan.contains("IDX_PRODUCT_PRICE"), plan);
+    }
+
+    @Test
+    void minRating_usesRatingIndex() {
+        String plan = explain(ProductSpecifications.matching(null, null, null, 4.5), "rating", 4.5);
+
+        assertTrue(plan.contains("IDX_PRODUCT_RATING"), plan);
+    }
+
+    @Test
+    void priceAndRating_usesPriceIndex() {
+        String plan = explain(ProductSpecifications.matching(null, new BigDecimal("100"), null, 4.5),
+                "price", new BigDecimal("100"), 4.5);
+
+        assertTrue(plan.contains("IDX_PRODUCT_PRICE: PRICE >="), plan);
+    }
+
+    @Test
+    void name_cannotSeekAnIndex() {
+        String plan = explain(ProductSpecifications.matching("dell", null, null, null), "name", "%dell%");
+
+        // A leading wildcard: the name index can only be scanned in order, never sought
+        assertFalse(plan.matches("(?s).*IDX_PRODUCT_NAME\\w*: .*"), plan);
+    }
+
+    @Test
+    void nameAndPrice_seeksPriceIndexAndChecksName() {
+        String plan = explain(ProductSpecifications.matching("dell", new BigDecimal("100"), new BigDecimal("900"), null),
+                "price", "%dell%", new BigDecimal("100"), new BigDecimal("900"));
+
+        assertTrue(plan.contains("IDX_PRODUCT_PRICE: PRICE <="), plan);
+        assertTrue(plan.contains("NAME_LOWER\" LIKE"), plan);
+    }
+
+    @Test
+    void name_escapesWildcards() {
+        Product product = productRepository.findById(1L).orElseThrow();
+        String fragment = product.getNameLower().substring(0, 3);
+
+        assertTrue(productRepository.findAll(ProductSpecifications.matching(fragment, null, null, null))
+                .stream().anyMatch(found -> found.getId().equals(1L)));
+        assertTrue(productRepository.findAll(ProductSpecifications.matching("%", null, null, null)).isEmpty());
+        assertTrue(productRepository.findAll(ProductSpecifications.matching("_", null, null, null)).isEmpty());
+    }
+
+    @Test
+    void name_comparesGeneratedColumn() {
+        String sql = select(ProductSpecifications.matching("dell", null, null, null), "name");
+
+        assertTrue(sql.contains("name_lower like"), sql);
+        assertFalse(sql.contains("lower("), sql);
+    }
+
+    @Test
+    void noFilters_addsNoPredicate() {
+        String sql = select(ProductSpecifications.matching(null, null, null, null), "id");
+
+        assertFalse(sql.contains(" where "), sql);
+    }
+
+    @Test
+    void attributeProjection_skipsTextColumns() {
+        productRepository.findAllWithAttributes(ProductSpecifications.matching(null, null, null, 4.0),
+                List.of("id", "name", "price"), Sort.by("rating", "id"), 0, 10);
+
+        String sql = SqlCapture.STATEMENTS.get(0).toLowerCase(Locale.ROOT);
+        assertFalse(sql.contains("description"), sql);
+        assertFalse(sql.contains("specifications"), sql);
+    }
+
+    @Test
+    void updateAttributes_setsOnlyGivenColumns() {
+        int updated = productRepository.updateAttributes(1L, Map.of("price", new BigDecimal("1199.99")));
+
+        assertEquals(1, updated);
+        String sql = SqlCapture.STATEMENTS.get(0).toLowerCase(Locale.ROOT);
+        assertTrue(sql.matches(
+                "update product \\w+ set price=\\?,version=\\(\\w+\\.version\\+\\?\\) where .*"), sql);
+        assertFalse(sql.contains("name"), sql);
+        assertEquals(0, productRepository.updateAttributes(99999L, Map.of("rating", 4.0)));
+    }
+
+    private String explain(Specification<Product> filters, String sortBy, Object... parameters) {
+        String sql = select(filters, sortBy);
+        List<Object> arguments = new ArrayList<>(List.of(parameters));
+        // Page size, bound after the filters
+        arguments.add(10);
+        return new JdbcTemplate(dataSource)
+                .queryForObject("EXPLAIN " + sql, String.class, arguments.toArray())
+                .toUpperCase(Locale.ROOT);
+    }
+
+    private String select(Specification<Product> filters, String sortBy) {
+        productRepository.findAll(filters, PageRequest.of(0, 10, Sort.by(sortBy, "id")));
+        assertEquals(1, SqlCapture.STATEMENTS.size(), "expected a single select, got " + SqlCapture.STATEMENTS);
+        return SqlCapture.STATEMENTS.get(0).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Records the SQL Hibernate sends, unchanged
+     */
+    public static class SqlCapture implements StatementInspector {
+        static final List<String> STATEMENTS = new ArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
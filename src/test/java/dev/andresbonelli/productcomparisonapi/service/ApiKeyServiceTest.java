@@ -8,11 +8,21 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.doAnswer;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class ApiKeyServiceTest {
@@ -20,6 +30,12 @@ class ApiKeyServiceTest {
     @Mock
     private ApiKeyRepository repository;
 
+    @Mock
+    private ApiKeyBloomFilter bloomFilter;
+
+    @Spy
+    private ApiKeyCache cache = new ApiKeyCache(100, Duration.ofMinutes(10), Duration.ofSeconds(30));
+
     @InjectMocks
     private ApiKeyService service;
 
@@ -38,7 +54,98 @@ class ApiKeyServiceTest {
         assertNotNull(apiKeyDTO.key());
         assertEquals(Role.USER.name(), apiKeyDTO.role());
         assertNotNull(apiKeyDTO.expiresAt());
+        verify(bloomFilter, times(1)).add(apiKeyDTO.key());
+    }
+
+    @Test
+    void validate_cachesKnownKey() {
+        // Arrange
+        ApiKey apiKey = new ApiKey();
+        apiKey.setKeyValue("known");
+        apiKey.setRole(Role.USER);
+        apiKey.setActive(true);
+        apiKey.setExpiresAt(LocalDateTime.now().plusDays(1));
+        when(repository.findByKeyValue("known")).thenReturn(Optional.of(apiKey));
+        // Act
+        service.validate("known");
+        var result = service.validate("known");
+        // Assert
+        assertTrue(result.isPresent());
+        verify(repository, times(1)).findByKeyValue("known");
+    }
+
+    @Test
+    void validate_cachesUnknownKey() {
+        // Arrange
+        when(repository.findByKeyValue("unknown")).thenReturn(Optional.empty());
+        // Act
+        service.validate("unknown");
+        var result = service.validate("unknown");
+        // Assert
+        assertTrue(result.isEmpty());
+        verify(repository, times(1)).findByKeyValue("unknown");
+    }
+
+    @Test
+    void deactivate_invalidatesCachedKey() {
+        // Arrange
+        ApiKey apiKey = new ApiKey();
+        apiKey.setKeyValue("known");
+        apiKey.setRole(Role.USER);
+        apiKey.setActive(true);
+        when(repository.findByKeyValue("known")).thenReturn(Optional.of(apiKey));
+        service.validate("known");
+        // Act
+        service.deactivate("known");
+        // Assert
+        verify(cache, times(1)).invalidate("known");
+        assertTrue(service.validate("known").isEmpty());
     }
 
+    @Test
+    void deactivate_invalidatesOnlyAfterCommit() {
+        // Arrange
+        ApiKey apiKey = new ApiKey();
+        apiKey.setKeyValue("known");
+        apiKey.setRole(Role.USER);
+        apiKey.setActive(true);
+        when(repository.findByKeyValue("known")).thenReturn(Optional.of(apiKey));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // Act
+            service.deactivate("known");
+            // Assert
+            verify(cache, never()).invalidate(any());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(cache, times(1)).invalidate("known");
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
 
-}
\ No newline at end of file
+    @Test
+    void deactivateExpiredBatch_evictsDeactivatedKeys() {
+        // Arrange
+        ApiKey expired = new ApiKey();
+        expired.setId(7L);
+        expired.setKeyValue("expired");
+        expired.setActive(true);
+        expired.setExpiresAt(LocalDateTime.now().minusDays(1));
+        when(repository.findExpiredActiveAfter(eq(0L), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(expired));
+        // Act
+        List<Long> ids = service.deactivateExpiredBatch(0L, LocalDateTime.now(), 100);
+        // Assert
+        assertEquals(List.of(7L), ids);
+        verify(repository, times(1)).deactivateAllByIdIn(List.of(7L));
+        verify(cache, times(1)).invalidate("expired");
+    }
+
+    @Test
+    void deactivateExpiredBatch_nothingExpired() {
+        when(repository.findExpiredActiveAfter(any(), any(), any())).thenReturn(List.of());
+
+        assertTrue(service.deactivateExpiredBatch(0L, LocalDateTime.now(), 100).isEmpty());
+        verify(repository, never()).deactivateAllByIdIn(any());
+    }
+}
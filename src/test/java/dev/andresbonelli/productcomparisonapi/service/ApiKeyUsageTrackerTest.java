@@ -0,0 +1,96 @@
+package dev.andresbonelli.productcomparisonapi.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ApiKeyUsageTrackerTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private ApiKeyUsageTracker tracker;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_writesOneBatchWithAccumulatedCounts() {
+        // Arrange
+        tracker.record(1L);
+        tracker.record(1L);
+        tracker.record(2L);
+        ArgumentCaptor<List<Object[]>> captor = ArgumentCaptor.forClass(List.class);
+
+        // Act
+        int flushed = tracker.flush();
+
+        // Assert
+        assertEquals(2, flushed);
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), captor.capture());
+        long total = captor.getValue().stream().mapToLong(args -> (Long) args[0]).sum();
+        assertEquals(3, total);
+    }
+
+    @Test
+    void flush_nothingPending() {
+        tracker.record(1L);
+        tracker.flush();
+        clearInvocations(jdbcTemplate);
+
+        assertEquals(0, tracker.flush());
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void flush_concurrentWithRecords_losesNoCount() throws Exception {
+        // Arrange
+        AtomicLong written = new AtomicLong();
+        doAnswer(invocation -> {
+            List<Object[]> batch = invocation.getArgument(1);
+            batch.forEach(args -> written.addAndGet((Long) args[0]));
+            return new int[batch.size()];
+        }).when(jdbcTemplate).batchUpdate(anyString(), anyList());
+        int threads = 4;
+        int records = 20_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> recorders = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            // The tight flush loop below finds keys idle now and then, so they are dropped and recreated
+            recorders.add(executor.submit(() -> {
+                for (int i = 0; i < records; i++) {
+                    tracker.record((long) (i % 3));
+                }
+            }));
+        }
+
+        // Act
+        while (recorders.stream().anyMatch(recorder -> !recorder.isDone())) {
+            tracker.flush();
+        }
+        for (Future<?> recorder : recorders) {
+            recorder.get();
+        }
+        tracker.flush();
+        executor.shutdown();
+
+        // Assert
+        assertEquals((long) threads * records, written.get());
+    }
+}
@@ -0,0 +1,76 @@
+package dev.andresbonelli.productcomparisonapi.service;
+
+import dev.andresbonelli.productcomparisonapi.api.dto.ProductDTO;
+import dev.andresbonelli.productcomparisonapi.api.dto.ProductFields;
+import dev.andresbonelli.productcomparisonapi.domain.entity.Product;
+import dev.andresbonelli.productcomparisonapi.domain.repository.ProductRepository;
+import dev.andresbonelli.productcomparisonapi.utils.ProductMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.util.List;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ProductBatchLoader, reading chunks on a real executor
+ */
+class ProductBatchLoaderTest {
+
+    private ProductRepository productRepository;
+    private ProductBatchLoader loader;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        ProductMapper productMapper = new ProductMapper();
+        loader = new ProductBatchLoader(productRepository, productMapper, new SimpleAsyncTaskExecutor(), 100, 500);
+        when(productRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            Iterable<Long> ids = invocation.getArgument(0);
+            return StreamSupport.stream(ids.spliterator(), false)
+                    .map(id -> Product.builder().id(id).name("Product " + id).version(0L).build())
+                    .toList();
+        });
+    }
+
+    @Test
+    void load_readsChunksOfBoundedSize() {
+        List<Long> ids = LongStream.rangeClosed(1, 250).boxed().toList();
+
+        List<ProductDTO> products = loader.load(ids, ProductFields.ALL);
+
+        assertEquals(250, products.size());
+        verify(productRepository).findAllById(ids.subList(0, 100));
+        verify(productRepository).findAllById(ids.subList(100, 200));
+        verify(productRepository).findAllById(ids.subList(200, 250));
+    }
+
+    @Test
+    void load_smallListInOneQuery() {
+        loader.load(List.of(1L, 2L), ProductFields.ALL);
+
+        verify(productRepository, times(1)).findAllById(anyIterable());
+    }
+
+    @Test
+    void load_rethrowsChunkFailure() {
+        when(productRepository.findAllById(anyIterable())).thenThrow(new QueryTimeoutException("slow"));
+        List<Long> ids = LongStream.rangeClosed(1, 150).boxed().toList();
+
+        assertThrows(QueryTimeoutException.class, () -> loader.load(ids, ProductFields.ALL));
+    }
+
+    @Test
+    void load_tooManyIds() {
+        List<Long> ids = LongStream.rangeClosed(1, 501).boxed().toList();
+
+        assertThrows(IllegalArgumentException.class, () -> loader.load(ids, ProductFields.ALL));
+        verifyNoInteractions(productRepository);
+    }
+}
@@ -0,0 +1,103 @@
+package dev.andresbonelli.productcomparisonapi.service;
+
+import dev.andresbonelli.productcomparisonapi.api.dto.ComparisonMatrix;
+import dev.andresbonelli.productcomparisonapi.api.dto.PagedProducts;
+import dev.andresbonelli.productcomparisonapi.api.dto.ProductDTO;
+import dev.andresbonelli.productcomparisonapi.config.CacheConfig;
+import dev.andresbonelli.productcomparisonapi.config.CacheProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageImpl;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ProductCacheInvalidator against real Caffeine regions
+ */
+class ProductCacheInvalidatorTest {
+
+    private CacheManager cacheManager;
+    private ProductCacheInvalidator invalidator;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new CacheConfig().cacheManager(new CacheProperties(Map.of()));
+        invalidator = new ProductCacheInvalidator(cacheManager);
+
+        cacheManager.getCache(CacheConfig.PRODUCTS_CACHE).put("1-2", page(product(1L), product(2L)));
+        cacheManager.getCache(CacheConfig.PRODUCTS_CACHE).put("2-2", page(product(3L), product(4L)));
+        cacheManager.getCache(CacheConfig.PRODUCT_CACHE).put(1L, new VersionedProduct(product(1L), 0));
+        cacheManager.getCache(CacheConfig.PRODUCT_CACHE).put(3L, new VersionedProduct(product(3L), 0));
+        cacheManager.getCache(CacheConfig.COMPARISON_CACHE).put("1,2", matrix(product(1L), product(2L)));
+        cacheManager.getCache(CacheConfig.COMPARISON_CACHE).put("2,3", matrix(product(2L), product(3L)));
+    }
+
+    @Test
+    void updated_evictsOnlyPagesContainingProduct() {
+        ProductDTO updated = new ProductDTO(3L, "Updated", "img", "desc", BigDecimal.ONE, 4.0, "specs");
+
+        invalidator.onProductChanged(ProductChangedEvent.updated(updated, 1L));
+
+        assertNotNull(cacheManager.getCache(CacheConfig.PRODUCTS_CACHE).get("1-2"));
+        assertNull(cacheManager.getCache(CacheConfig.PRODUCTS_CACHE).get("2-2"));
+        assertEquals(new VersionedProduct(updated, 1),
+                cacheManager.getCache(CacheConfig.PRODUCT_CACHE).get(3L).get());
+        assertNotNull(cacheManager.getCache(CacheConfig.PRODUCT_CACHE).get(1L));
+    }
+
+    @Test
+    void updated_staleReadCannotReplaceNewerVersion() {
+        ProductDTO updated = new ProductDTO(3L, "Updated", "img", "desc", BigDecimal.ONE, 4.0, "specs");
+        invalidator.onProductChanged(ProductChangedEvent.updated(updated, 1L));
+
+        // A reader that loaded version 0 before the commit stores its copy afterwards
+        cacheManager.getCache(CacheConfig.PRODUCT_CACHE).put(3L, new VersionedProduct(product(3L), 0));
+
+        assertEquals(new VersionedProduct(updated, 1),
+                cacheManager.getCache(CacheConfig.PRODUCT_CACHE).get(3L).get());
+    }
+
+    @Test
+    void updated_evictsOnlyComparisonsContainingProduct() {
+        invalidator.onProductChanged(ProductChangedEvent.updated(product(3L), 1L));
+
+        assertNotNull(cacheManager.getCache(CacheConfig.COMPARISON_CACHE).get("1,2"));
+        assertNull(cacheManager.getCache(CacheConfig.COMPARISON_CACHE).get("2,3"));
+    }
+
+    @Test
+    void deleted_evictsProductAndPages() {
+        invalidator.onProductChanged(ProductChangedEvent.deleted(1L));
+
+        assertNull(cacheManager.getCache(CacheConfig.PRODUCT_CACHE).get(1L));
+        assertNotNull(cacheManager.getCache(CacheConfig.PRODUCT_CACHE).get(3L));
+        assertNull(cacheManager.getCache(CacheConfig.PRODUCTS_CACHE).get("1-2"));
+        assertNull(cacheManager.getCache(CacheConfig.PRODUCTS_CACHE).get("2-2"));
+    }
+
+    @Test
+    void reset_clearsEverything() {
+        invalidator.onProductChanged(ProductChangedEvent.reset());
+
+        assertNull(cacheManager.getCache(CacheConfig.PRODUCT_CACHE).get(3L));
+        assertNull(cacheManager.getCache(CacheConfig.PRODUCTS_CACHE).get("1-2"));
+        assertNull(cacheManager.getCache(CacheConfig.COMPARISON_CACHE).get("1,2"));
+    }
+
+    private static ProductDTO product(Long id) {
+        return new ProductDTO(id, "Product " + id, "img", "desc", BigDecimal.TEN, 4.5, "specs");
+    }
+
+    private static ComparisonMatrix matrix(ProductDTO... products) {
+        return new ComparisonMatrix(List.of(products), List.of(), List.of());
+    }
+
+    private static PagedProducts<ProductDTO> page(ProductDTO... products) {
+        return new PagedProducts<>(new PageImpl<>(List.of(products)));
+    }
+}
@@ -0,0 +1,58 @@
+package dev.andresbonelli.productcomparisonapi.service;
+
+import dev.andresbonelli.productcomparisonapi.api.dto.ComparisonMatrix;
+import dev.andresbonelli.productcomparisonapi.api.dto.ProductDTO;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the comparison matrix built by ProductComparisonService
+ */
+class ProductComparisonServiceTest {
+
+    @Test
+    void build_alignsAttributesAndMarksBestAndWorst() {
+        ComparisonMatrix matrix = ProductComparisonService.build(List.of(
+                product(1L, "RAM: 16GB, Storage: 1TB SSD, Weight: 1.8kg, Color: Silver"),
+                product(2L, "RAM: 8GB, Storage: 512GB, Weight: 1200g"),
+                product(3L, "RAM: 16GB, Weight: 2kg, Color: Black")
+        ));
+
+        assertEquals(List.of("ram", "weight"), matrix.sharedAttributes());
+        assertEquals(row("ram", List.of("16GB", "8GB", "16GB"), "gb", List.of(1L, 3L), List.of(2L)),
+                matrix.attributes().get(0));
+        assertEquals(row("storage", Arrays.asList("1TB SSD", "512GB", null), "gb", List.of(1L), List.of(2L)),
+                matrix.attributes().get(1));
+        // Lighter is better
+        assertEquals(row("weight", List.of("1.8kg", "1200g", "2kg"), "kg", List.of(2L), List.of(3L)),
+                matrix.attributes().get(2));
+        assertEquals(row("color", Arrays.asList("Silver", null, "Black"), null, List.of(), List.of()),
+                matrix.attributes().get(3));
+    }
+
+    @Test
+    void build_equalOrMixedUnits_noMarkers() {
+        ComparisonMatrix matrix = ProductComparisonService.build(List.of(
+                product(1L, "RAM: 16GB, Battery: 5000mAh"),
+                product(2L, "RAM: 16GB, Battery: 2kg")
+        ));
+
+        assertEquals(row("ram", List.of("16GB", "16GB"), "gb", List.of(), List.of()), matrix.attributes().get(0));
+        assertEquals(row("battery", List.of("5000mAh", "2kg"), null, List.of(), List.of()),
+                matrix.attributes().get(1));
+    }
+
+    private static ComparisonMatrix.Row row(
+            String name, List<String> values, String unit, List<Long> best, List<Long> worst) {
+        return new ComparisonMatrix.Row(name, values, unit, best, worst);
+    }
+
+    private static ProductDTO product(Long id, String specifications) {
+        return new ProductDTO(id, "Product " + id, "img", "desc", BigDecimal.TEN, 4.5, specifications);
+    }
+}
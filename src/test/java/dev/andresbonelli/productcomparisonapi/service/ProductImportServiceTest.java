@@ -0,0 +1,45 @@
+package dev.andresbonelli.productcomparisonapi.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.andresbonelli.productcomparisonapi.api.dto.ExportFormat;
+import dev.andresbonelli.productcomparisonapi.api.dto.ImportReport;
+import dev.andresbonelli.productcomparisonapi.utils.ProductMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLIntegrityConstraintViolationException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ProductImportService with a database that rejects every batch
+ */
+class ProductImportServiceTest {
+
+    @Test
+    void rejectedBatch_reportsNoDatabaseDetail() throws Exception {
+        ProductService productService = mock(ProductService.class);
+        doThrow(new DataIntegrityViolationException("could not execute batch",
+                new SQLIntegrityConstraintViolationException("Duplicate entry for key 'product.uk_product_name'")))
+                .when(productService).insertProducts(anyList());
+        ProductImportService importService = new ProductImportService(productService, new ProductMapper(),
+                Validation.buildDefaultValidatorFactory().getValidator(), mock(ApplicationEventPublisher.class),
+                new ObjectMapper(), 10, 100);
+        String ndjson = "{\"name\":\"Phone\",\"imageUrl\":\"http://test.com/1.jpg\",\"description\":\"Phone\","
+                + "\"price\":199.5,\"rating\":4.1,\"specifications\":\"RAM: 4GB\"}\n";
+
+        ImportReport report = importService.importProducts(ExportFormat.NDJSON,
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(0, report.imported());
+        assertEquals(1, report.failed());
+        String message = report.errors().get(0).message();
+        assertFalse(message.contains("Duplicate") || message.contains("uk_product_name"), message);
+    }
+}
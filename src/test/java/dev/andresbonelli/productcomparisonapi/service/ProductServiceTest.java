@@ -2,27 +2,44 @@ package dev.andresbonelli.productcomparisonapi.service;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import dev.andresbonelli.productcomparisonapi.api.dto.AttributeFilter;
+import dev.andresbonelli.productcomparisonapi.api.dto.PagedProducts;
+import dev.andresbonelli.productcomparisonapi.api.dto.PartialProducts;
 import dev.andresbonelli.productcomparisonapi.api.dto.ProductDTO;
+import dev.andresbonelli.productcomparisonapi.api.dto.ProductFields;
+import dev.andresbonelli.productcomparisonapi.api.dto.ProductPatch;
 import dev.andresbonelli.productcomparisonapi.api.dto.ProductSearchCriteria;
+import dev.andresbonelli.productcomparisonapi.api.dto.TotalCount;
 import dev.andresbonelli.productcomparisonapi.domain.entity.Product;
 import dev.andresbonelli.productcomparisonapi.domain.exception.ResourceNotFoundException;
 import dev.andresbonelli.productcomparisonapi.domain.repository.ProductRepository;
+import dev.andresbonelli.productcomparisonapi.service.catalog.CatalogReadModel;
+import dev.andresbonelli.productcomparisonapi.service.catalog.ProductNameIndex;
+import dev.andresbonelli.productcomparisonapi.service.catalog.ProductTextIndex;
+import dev.andresbonelli.productcomparisonapi.utils.Bm25Index;
 import dev.andresbonelli.productcomparisonapi.utils.ProductMapper;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
@@ -41,6 +58,30 @@ class ProductServiceTest {
     @Mock
     private ProductMapper productMapper;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private CatalogReadModel catalogReadModel;
+
+    @Mock
+    private ProductNameIndex productNameIndex;
+
+    @Mock
+    private ProductTextIndex productTextIndex;
+
+    @Mock
+    private ProductAttributeService productAttributeService;
+
+    @Mock
+    private SearchCountCache searchCountCache;
+
+    @Mock
+    private Validator validator;
+
+    @Mock
+    private ProductBatchLoader productBatchLoader;
+
     @InjectMocks
     private ProductService productService;
 
@@ -58,6 +99,7 @@ class ProductServiceTest {
                 .price(new BigDecimal("99.99"))
                 .rating(4.5)
                 .specifications("Specs de prueba")
+                .version(2L)
                 .build();
 
         testProductDTO = new ProductDTO(
@@ -89,7 +131,7 @@ class ProductServiceTest {
         when(productMapper.toDTO(any(Product.class))).thenReturn(testProductDTO);
 
         // Act
-        var resultPage = productService.getAllProducts(1,10);
+        var resultPage = productService.getAllProducts(1, 10, ProductFields.ALL);
         List<ProductDTO> result = resultPage.products();
 
         // Assert
@@ -98,6 +140,21 @@ class ProductServiceTest {
         assertEquals(testProductDTO.name(), result.getFirst().name());
     }
 
+    @Test
+    void getAllProducts_servedFromReadModel() {
+        // Arrange
+        var page = new PagedProducts<>(new PageImpl<>(List.of(testProductDTO)));
+        when(catalogReadModel.isServing()).thenReturn(true);
+        when(catalogReadModel.page(0, 10)).thenReturn(page);
+
+        // Act
+        var result = productService.getAllProducts(1, 10, ProductFields.ALL);
+
+        // Assert
+        assertSame(page, result);
+        verify(productRepository, never()).findAll(any(Pageable.class));
+    }
+
     @Test
     void getProductById() {
         // Arrange
@@ -105,12 +162,12 @@ class ProductServiceTest {
         when(productMapper.toDTO(testProduct)).thenReturn(testProductDTO);
 
         // Act
-        ProductDTO result = productService.getProductById(1L);
+        VersionedProduct result = productService.getProductById(1L);
 
         // Assert
         assertNotNull(result);
-        assertEquals(testProductDTO.id(), result.id());
-        assertEquals(testProductDTO.name(), result.name());
+        assertEquals(testProductDTO, result.product());
+        assertEquals(2L, result.version());
         verify(productRepository, times(1)).findById(1L);
     }
 
@@ -127,20 +184,15 @@ class ProductServiceTest {
     @Test
     void getProductsByIds() {
         // Arrange
-        List<Long> ids = Arrays.asList(1L, 2L);
-        List<Product> products = Arrays.asList(testProduct, testProduct);
-        List<ProductDTO> expectedDTOs = Arrays.asList(testProductDTO, testProductDTO);
-
-        when(productRepository.findAllById(ids)).thenReturn(products);
-        when(productMapper.toDTOList(products)).thenReturn(expectedDTOs);
+        ProductDTO second = new ProductDTO(2L, "Second", "http://test.com/2.jpg", "Otro", BigDecimal.TEN, 4.0, "");
+        when(productBatchLoader.load(List.of(2L, 1L), ProductFields.ALL)).thenReturn(List.of(testProductDTO, second));
 
         // Act
-        List<ProductDTO> result = productService.getProductsByIds(ids);
+        List<ProductDTO> result = productService.getProductsByIds(Arrays.asList(2L, 1L, 2L));
 
-        // Assert
-        assertNotNull(result);
-        assertEquals(2, result.size());
-        verify(productRepository, times(1)).findAllById(ids);
+        // Assert: request order, repeated ids once
+        assertEquals(List.of(second, testProductDTO), result);
+        verify(productBatchLoader, times(1)).load(List.of(2L, 1L), ProductFields.ALL);
     }
 
     @Test
@@ -150,32 +202,47 @@ class ProductServiceTest {
 
         // Act & Assert
         assertThrows(IllegalArgumentException.class, () -> productService.getProductsByIds(emptyIds));
-        verify(productRepository, never()).findAllById(any());
+        verify(productBatchLoader, never()).load(any(), any());
     }
 
     @Test
     void getProductsByIds_productMissing() {
         // Arrange
         List<Long> ids = Arrays.asList(1L, 2L);
-        when(productRepository.findAllById(ids)).thenReturn(Collections.singletonList(testProduct));
+        when(productBatchLoader.load(ids, ProductFields.ALL)).thenReturn(Collections.singletonList(testProductDTO));
         // Act & Assert
-        assertThrows(ResourceNotFoundException.class, () -> productService.getProductsByIds(ids));
-        verify(productRepository, times(1)).findAllById(ids);
+        ResourceNotFoundException e =
+                assertThrows(ResourceNotFoundException.class, () -> productService.getProductsByIds(ids));
+        assertTrue(e.getMessage().contains("[2]"));
+    }
+
+    @Test
+    void findProductsByIds_listsMissing() {
+        // Arrange
+        when(productBatchLoader.load(List.of(3L, 1L, 2L), ProductFields.ALL)).thenReturn(List.of(testProductDTO));
+
+        // Act
+        PartialProducts result = productService.findProductsByIds(List.of(3L, 1L, 2L, 3L), ProductFields.ALL);
+
+        // Assert
+        assertEquals(List.of(testProductDTO), result.products());
+        assertEquals(List.of(3L, 2L), result.missingIds());
     }
 
     @Test
     void searchByName() {
         // Arrange
-        String searchTerm = "Test";
+        String searchTerm = " Test ";
         searchCriteria.setName(searchTerm);
         Page<Product> products = new PageImpl<>(Collections.singletonList(testProduct));
 
-        when(productRepository.findAdvanced(eq(searchTerm), any(), any(), any(), any(Pageable.class)))
+        when(productRepository.findAll(any(Specification.class), any(Pageable.class)))
                 .thenReturn(products);
         when(productMapper.toDTO(testProduct)).thenReturn(testProductDTO);
 
         // Act
-        List<ProductDTO> result = productService.advancedSearch(1, 10, searchCriteria)
+        List<ProductDTO> result = productService.advancedSearch(
+                1, 10, searchCriteria, TotalCount.EXACT, ProductFields.ALL)
                 .products();
 
         // Assert
@@ -183,6 +250,160 @@ class ProductServiceTest {
         assertEquals(1, result.size());
     }
 
+    @Test
+    void searchByName_usesNameIndex() {
+        // Arrange
+        searchCriteria.setName("Test");
+        Page<Product> products = new PageImpl<>(Collections.singletonList(testProduct));
+
+        when(productNameIndex.findIdsForQuery("test")).thenReturn(Optional.of(new long[]{1L}));
+        when(productRepository.findAll(any(Specification.class), any(Pageable.class)))
+                .thenReturn(products);
+        when(productMapper.toDTO(testProduct)).thenReturn(testProductDTO);
+
+        // Act
+        List<ProductDTO> result = productService.advancedSearch(
+                1, 10, searchCriteria, TotalCount.EXACT, ProductFields.ALL).products();
+
+        // Assert
+        assertEquals(1, result.size());
+    }
+
+    @Test
+    void searchByName_noIndexMatches_skipsDatabase() {
+        // Arrange
+        searchCriteria.setName("nothing");
+        when(productNameIndex.findIdsForQuery("nothing")).thenReturn(Optional.of(new long[0]));
+
+        // Act
+        PagedProducts<ProductDTO> result = productService.advancedSearch(
+                1, 10, searchCriteria, TotalCount.EXACT, ProductFields.ALL);
+
+        // Assert
+        assertTrue(result.products().isEmpty());
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void advancedSearch_estimatedCount_skipsCountQuery() {
+        // Arrange
+        when(productRepository.findBy(any(Specification.class), any()))
+                .thenReturn(new SliceImpl<>(List.of(testProduct), PageRequest.of(0, 10), true));
+        when(searchCountCache.count(any(ProductSearchCriteria.class))).thenReturn(42L);
+        when(productMapper.toDTO(testProduct)).thenReturn(testProductDTO);
+
+        // Act
+        PagedProducts<ProductDTO> result = productService.advancedSearch(
+                1, 10, searchCriteria, TotalCount.ESTIMATE, ProductFields.ALL);
+
+        // Assert
+        assertEquals(1, result.products().size());
+        assertEquals(42L, result.pagination().totalElements());
+        assertFalse(result.pagination().totalExact());
+        assertFalse(result.pagination().isLast());
+        verify(productRepository, never()).findAll(any(Specification.class), any(Pageable.class));
+    }
+
+    @Test
+    void advancedSearch_noCount_leavesTotalsOut() {
+        // Arrange
+        when(productRepository.findBy(any(Specification.class), any()))
+                .thenReturn(new SliceImpl<>(List.of(testProduct), PageRequest.of(0, 10), false));
+        when(productMapper.toDTO(testProduct)).thenReturn(testProductDTO);
+
+        // Act
+        PagedProducts<ProductDTO> result = productService.advancedSearch(
+                1, 10, searchCriteria, TotalCount.NONE, ProductFields.ALL);
+
+        // Assert
+        assertNull(result.pagination().totalElements());
+        assertNull(result.pagination().totalPages());
+        assertTrue(result.pagination().isLast());
+        verifyNoInteractions(searchCountCache);
+    }
+
+    @Test
+    void advancedSearch_summaryFields_selectsOnlyThoseColumns() {
+        // Arrange
+        Product summary = Product.builder().id(1L).name("Test Product").price(new BigDecimal("99.99")).build();
+        when(productRepository.findAllWithAttributes(
+                any(Specification.class), eq(ProductFields.SUMMARY.names()), any(Sort.class), eq(0L), eq(11)))
+                .thenReturn(List.of(summary));
+        when(productMapper.toDTOList(List.of(summary)))
+                .thenReturn(List.of(ProductFields.SUMMARY.apply(testProductDTO)));
+
+        // Act
+        PagedProducts<ProductDTO> result = productService.advancedSearch(
+                1, 10, searchCriteria, TotalCount.NONE, ProductFields.SUMMARY);
+
+        // Assert
+        assertEquals(1, result.products().size());
+        assertNull(result.products().get(0).specifications());
+        assertTrue(result.pagination().isLast());
+        verify(productRepository, never()).findBy(any(Specification.class), any());
+    }
+
+    @Test
+    void advancedSearch_attributeFilter_restrictsToMatches() {
+        // Arrange
+        List<AttributeFilter> filters = List.of(AttributeFilter.fromParameter("attr.RAM>", "16GB"));
+        searchCriteria.setAttributes(filters);
+        Page<Product> products = new PageImpl<>(Collections.singletonList(testProduct));
+
+        when(productAttributeService.findProductIds(filters)).thenReturn(new long[]{1L});
+        when(productRepository.findAll(any(Specification.class), any(Pageable.class)))
+                .thenReturn(products);
+        when(productMapper.toDTO(testProduct)).thenReturn(testProductDTO);
+
+        // Act
+        List<ProductDTO> result = productService.advancedSearch(
+                1, 10, searchCriteria, TotalCount.EXACT, ProductFields.ALL).products();
+
+        // Assert
+        assertEquals(1, result.size());
+    }
+
+    @Test
+    void advancedSearch_noAttributeMatches_skipsDatabase() {
+        // Arrange
+        List<AttributeFilter> filters = List.of(AttributeFilter.fromParameter("attr.Battery>", "10000mAh"));
+        searchCriteria.setAttributes(filters);
+        when(productAttributeService.findProductIds(filters)).thenReturn(new long[0]);
+
+        // Act
+        PagedProducts<ProductDTO> result = productService.advancedSearch(
+                1, 10, searchCriteria, TotalCount.EXACT, ProductFields.ALL);
+
+        // Assert
+        assertTrue(result.products().isEmpty());
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void fullTextSearch_keepsRankingOrder() {
+        // Arrange
+        Product second = Product.builder().id(2L).name("Second").build();
+        ProductDTO secondDTO = new ProductDTO(2L, "Second", null, null, null, null, null);
+        when(productTextIndex.search("oled", 0, 10))
+                .thenReturn(new Bm25Index.TopHits(new long[]{2L, 1L}, new float[]{2f, 1f}, 2, true));
+        when(productRepository.findAllById(List.of(2L, 1L))).thenReturn(List.of(testProduct, second));
+        when(productMapper.toDTO(testProduct)).thenReturn(testProductDTO);
+        when(productMapper.toDTO(second)).thenReturn(secondDTO);
+
+        // Act
+        PagedProducts<ProductDTO> result = productService.fullTextSearch(1, 10, "oled");
+
+        // Assert
+        assertEquals(List.of(2L, 1L), result.products().stream().map(ProductDTO::id).toList());
+        assertEquals(2, result.pagination().totalElements());
+    }
+
+    @Test
+    void fullTextSearch_emptyQuery() {
+        assertThrows(IllegalArgumentException.class, () -> productService.fullTextSearch(1, 10, " "));
+        verifyNoInteractions(productTextIndex);
+    }
+
     @Test
     void searchByMinRating() {
         // Arrange
@@ -190,12 +411,13 @@ class ProductServiceTest {
         searchCriteria.setMinRating(minRating);
         Page<Product> products = new PageImpl<>(Collections.singletonList(testProduct));
 
-        when(productRepository.findAdvanced(any(), any(), any(), eq(minRating), any(Pageable.class)))
+        when(productRepository.findAll(any(Specification.class), any(Pageable.class)))
                 .thenReturn(products);
         when(productMapper.toDTO(testProduct)).thenReturn(testProductDTO);
 
         // Act
-        List<ProductDTO> result = productService.advancedSearch(1,10,searchCriteria)
+        List<ProductDTO> result = productService.advancedSearch(
+                1,10,searchCriteria, TotalCount.EXACT, ProductFields.ALL)
                 .products();
 
         // Assert
@@ -207,9 +429,11 @@ class ProductServiceTest {
     void searchByMinRating_invalidRating() {
         // Act & Assert
         searchCriteria.setMinRating(-1.0);
-        assertThrows(IllegalArgumentException.class, () -> productService.advancedSearch(1,10,searchCriteria));
+        assertThrows(IllegalArgumentException.class,
+                () -> productService.advancedSearch(1, 10, searchCriteria, TotalCount.EXACT, ProductFields.ALL));
         searchCriteria.setMinRating(6.0);
-        assertThrows(IllegalArgumentException.class, () -> productService.advancedSearch(1, 10, searchCriteria));
+        assertThrows(IllegalArgumentException.class,
+                () -> productService.advancedSearch(1, 10, searchCriteria, TotalCount.EXACT, ProductFields.ALL));
         verify(productRepository, never()).findByRatingGreaterThanEqual(any());
     }
 
@@ -222,12 +446,13 @@ class ProductServiceTest {
         searchCriteria.setMaxPrice(maxPrice);
         Page<Product> products = new PageImpl<>(Collections.singletonList(testProduct));
 
-        when(productRepository.findAdvanced(any(), eq(minPrice), eq(maxPrice), any(),any(Pageable.class)))
+        when(productRepository.findAll(any(Specification.class), any(Pageable.class)))
                 .thenReturn(products);
         when(productMapper.toDTO(testProduct)).thenReturn(testProductDTO);
 
         // Act
-        List<ProductDTO> result = productService.advancedSearch(1,10,searchCriteria)
+        List<ProductDTO> result = productService.advancedSearch(
+                1,10,searchCriteria, TotalCount.EXACT, ProductFields.ALL)
                 .products();
 
         // Assert
@@ -235,6 +460,17 @@ class ProductServiceTest {
         assertEquals(1, result.size());
     }
 
+    @Test
+    void searchFingerprint_equivalentCriteriaShareKey() {
+        ProductSearchCriteria explicit = new ProductSearchCriteria(
+                "id", "asc", "laptop", new BigDecimal("50.00"), new BigDecimal("100"), 4.0);
+        ProductSearchCriteria defaults = new ProductSearchCriteria(
+                null, null, "  LapTop ", new BigDecimal("50"), new BigDecimal("100.000"), 4.0);
+
+        assertEquals(explicit.fingerprint(1, 10), defaults.fingerprint(1, 10));
+        assertNotEquals(explicit.fingerprint(1, 10), defaults.fingerprint(2, 10));
+    }
+
     @Test
     void createProduct_ok() {
         // Arrange
@@ -249,6 +485,7 @@ class ProductServiceTest {
         assertNotNull(result);
         assertEquals(testProductDTO.name(), result.name());
         verify(productRepository, times(1)).save(any(Product.class));
+        verify(eventPublisher, times(1)).publishEvent(ProductChangedEvent.created(testProductDTO, 2L));
     }
 
     @Test
@@ -277,8 +514,11 @@ class ProductServiceTest {
         doAnswer(a->{
             Product product = a.getArgument(0);
             assertEquals(updatedProduct.getName(), product.getName());
-            return updatedProduct;
-        }).when(productRepository).save(any(Product.class));
+            // Merged over the stored version, so concurrent updates are detected
+            assertEquals(testProduct.getVersion(), product.getVersion());
+            product.setVersion(3L);
+            return product;
+        }).when(productRepository).saveAndFlush(any(Product.class));
         when(productMapper.toDTO(updatedProduct)).thenReturn(updatedProductDTO);
 
         // Act
@@ -287,7 +527,26 @@ class ProductServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals(updatedProductDTO.name(), result.name());
-        verify(productRepository, times(1)).save(any(Product.class));
+        verify(productRepository, times(1)).saveAndFlush(any(Product.class));
+        verify(eventPublisher, times(1)).publishEvent(ProductChangedEvent.updated(updatedProductDTO, 3L));
+    }
+
+    @Test
+    void updateProduct_mergesClientVersion() {
+        // Arrange
+        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+        when(productMapper.toEntity(testProductDTO)).thenReturn(Product.builder().name("Stale").build());
+        doAnswer(a -> {
+            Product product = a.getArgument(0);
+            // Hibernate compares it with the stored version and rejects the merge if they differ
+            assertEquals(7L, product.getVersion());
+            throw new ObjectOptimisticLockingFailureException(Product.class, 1L);
+        }).when(productRepository).saveAndFlush(any(Product.class));
+
+        // Act & Assert
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> productService.updateProduct(1L, testProductDTO, 7L));
+        verify(eventPublisher, never()).publishEvent(any(ProductChangedEvent.class));
     }
 
     @Test
@@ -300,9 +559,40 @@ class ProductServiceTest {
         verify(productRepository, times(1)).findById(999L);
     }
 
+    @Test
+    void patchProduct_updatesOnlyPatchedColumns() {
+        // Arrange
+        Map<String, Object> changes = Map.of("price", new BigDecimal("89.99"));
+        when(productRepository.updateAttributes(1L, changes)).thenReturn(1);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+        when(productMapper.toDTO(testProduct)).thenReturn(testProductDTO);
+
+        // Act
+        ProductDTO result = productService.patchProduct(1L, new ProductPatch(changes));
+
+        // Assert
+        assertEquals(testProductDTO, result);
+        verify(productRepository, never()).save(any());
+        verify(productAttributeService, never()).replaceAttributes(anyLong(), any());
+        verify(eventPublisher).publishEvent(ProductChangedEvent.updated(testProductDTO, 2L));
+    }
+
+    @Test
+    void patchProduct_notFound() {
+        // Arrange
+        when(productRepository.updateAttributes(eq(999L), any())).thenReturn(0);
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class,
+                () -> productService.patchProduct(999L, new ProductPatch(Map.of("rating", 4.0))));
+        verify(productRepository, never()).findById(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
     @Test
     void deleteProduct_ok() {
         productService.deleteProduct(1L);
         verify(productRepository, times(1)).deleteById(1L);
+        verify(eventPublisher, times(1)).publishEvent(ProductChangedEvent.deleted(1L));
     }
 }
\ No newline at end of file
@@ -0,0 +1,142 @@
+package dev.andresbonelli.productcomparisonapi.service.catalog;
+
+import dev.andresbonelli.productcomparisonapi.api.dto.PageCursor;
+import dev.andresbonelli.productcomparisonapi.api.dto.ProductDTO;
+import dev.andresbonelli.productcomparisonapi.api.dto.ProductSearchCriteria;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for CatalogSnapshot
+ */
+class CatalogSnapshotTest {
+
+    private CatalogSnapshot snapshot;
+
+    @BeforeEach
+    void setUp() {
+        snapshot = CatalogSnapshot.of(List.of(
+                product(3L, "Sony WH-1000XM5", "399.99", 4.7),
+                product(1L, "Dell XPS 15 Laptop", "1299.99", 4.5),
+                product(2L, "Samsung Galaxy S23 Ultra", "1199.99", 4.8)
+        ));
+    }
+
+    @Test
+    void of_ordersRowsById() {
+        assertEquals(3, snapshot.size());
+        assertEquals(1L, snapshot.idAt(0));
+        assertEquals(3L, snapshot.idAt(2));
+        assertEquals(new BigDecimal("1299.99"), snapshot.get(0).price());
+    }
+
+    @Test
+    void search_filtersAndSorts() {
+        ProductSearchCriteria criteria = new ProductSearchCriteria(
+                "price", "desc", "s", new BigDecimal("300"), null, 4.6).normalized();
+
+        int[] rows = snapshot.search(criteria);
+
+        assertEquals(List.of(2L, 3L), ids(rows));
+    }
+
+    @Test
+    void search_nameIsCaseInsensitive() {
+        ProductSearchCriteria criteria = new ProductSearchCriteria(
+                null, null, "LAPTOP", null, null, null).normalized();
+
+        assertEquals(List.of(1L), ids(snapshot.search(criteria)));
+    }
+
+    @Test
+    void search_nameIgnoresAccents() {
+        snapshot = snapshot.withProduct(product(4L, "Cafetera Crème", "89.99", 4.0));
+        ProductSearchCriteria criteria = new ProductSearchCriteria(
+                null, null, "CREME", null, null, null).normalized();
+
+        assertEquals(List.of(4L), ids(snapshot.search(criteria)));
+    }
+
+    @Test
+    void search_sortsByRatingAndId() {
+        ProductSearchCriteria byRating = new ProductSearchCriteria(
+                "rating", "asc", null, null, null, null).normalized();
+        ProductSearchCriteria byIdDesc = new ProductSearchCriteria(
+                "id", "desc", null, null, new BigDecimal("1250"), null).normalized();
+
+        assertEquals(List.of(1L, 3L, 2L), ids(snapshot.search(byRating)));
+        assertEquals(List.of(3L, 2L), ids(snapshot.search(byIdDesc)));
+    }
+
+    @Test
+    void search_usesIndexesAfterIncrementalChanges() {
+        snapshot = snapshot
+                .withProduct(product(4L, "Cheap", "5.00", 4.9))
+                .withProduct(product(3L, "Sony WH-1000XM5", "1500.00", 4.7))
+                .withoutProduct(1L);
+        ProductSearchCriteria criteria = new ProductSearchCriteria(
+                "price", "asc", null, null, null, 4.7).normalized();
+
+        assertEquals(List.of(4L, 2L, 3L), ids(snapshot.search(criteria)));
+    }
+
+    @Test
+    void search_startsFromNameMatches() {
+        ProductSearchCriteria criteria = new ProductSearchCriteria(
+                "price", "desc", "a", null, null, null).normalized();
+
+        assertEquals(List.of(1L, 2L), ids(snapshot.search(criteria, null)));
+        // Ids from the name index are still verified against the snapshot
+        assertEquals(List.of(2L), ids(snapshot.search(criteria, new long[]{2L, 3L})));
+    }
+
+    @Test
+    void positionAfter_continuesAfterCursor() {
+        snapshot = snapshot.withProduct(product(4L, "Pixel 8", "399.99", 4.1));
+        ProductSearchCriteria byPriceDesc = new ProductSearchCriteria(
+                "price", "desc", null, null, null, null).normalized();
+        int[] rows = snapshot.search(byPriceDesc);
+        assertEquals(List.of(1L, 2L, 4L, 3L), ids(rows));
+
+        // Equal prices continue by id in the same direction
+        PageCursor afterPixel = PageCursor.after(byPriceDesc, snapshot.get(snapshot.rowOf(4L)));
+        assertEquals(3, snapshot.positionAfter(rows, byPriceDesc, afterPixel));
+        PageCursor afterLast = PageCursor.after(byPriceDesc, snapshot.get(snapshot.rowOf(3L)));
+        assertEquals(4, snapshot.positionAfter(rows, byPriceDesc, afterLast));
+    }
+
+    @Test
+    void withProduct_insertsAndReplacesWithoutTouchingOriginal() {
+        CatalogSnapshot inserted = snapshot.withProduct(product(5L, "New", "10.00", 3.0));
+        CatalogSnapshot replaced = inserted.withProduct(product(2L, "Renamed", "10.00", 3.0));
+
+        assertEquals(3, snapshot.size());
+        assertEquals(4, inserted.size());
+        assertEquals("Samsung Galaxy S23 Ultra", inserted.get(inserted.rowOf(2L)).name());
+        assertEquals("Renamed", replaced.get(replaced.rowOf(2L)).name());
+        assertEquals(5L, replaced.idAt(3));
+    }
+
+    @Test
+    void withoutProduct_removesRow() {
+        CatalogSnapshot removed = snapshot.withoutProduct(2L);
+
+        assertEquals(2, removed.size());
+        assertTrue(removed.rowOf(2L) < 0);
+        assertSame(snapshot, snapshot.withoutProduct(99L));
+    }
+
+    private List<Long> ids(int[] rows) {
+        return Arrays.stream(rows).mapToObj(snapshot::idAt).toList();
+    }
+
+    private static ProductDTO product(Long id, String name, String price, double rating) {
+        return new ProductDTO(id, name, "img", "desc", new BigDecimal(price), rating, "specs");
+    }
+}
@@ -0,0 +1,49 @@
+package dev.andresbonelli.productcomparisonapi.service.catalog;
+
+import dev.andresbonelli.productcomparisonapi.domain.repository.ProductRepository;
+import dev.andresbonelli.productcomparisonapi.service.ProductChangedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ProductNameIndex reloads
+ */
+class ProductNameIndexTest {
+
+    @Test
+    void reset_searchDuringReloadSeesPreviousIndex() {
+        ProductRepository repository = mock(ProductRepository.class);
+        ProductNameIndex nameIndex = new ProductNameIndex(repository, true, 1000);
+        List<long[]> seenDuringReload = new ArrayList<>();
+        when(repository.streamIdsAndNames())
+                .thenReturn(Stream.of(product(1L, "Sony Phone"), product(2L, "Apple Phone")))
+                .thenReturn(Stream.of(product(1L, "Sony Phone"), product(2L, "Apple Phone"), product(3L, "LG Phone"))
+                        .peek(product -> seenDuringReload.add(nameIndex.findIds("phone").orElseThrow())));
+        nameIndex.load();
+
+        nameIndex.onProductChanged(ProductChangedEvent.reset());
+
+        seenDuringReload.forEach(ids -> assertArrayEquals(new long[]{1L, 2L}, ids));
+        assertArrayEquals(new long[]{1L, 2L, 3L}, nameIndex.findIds("phone").orElseThrow());
+    }
+
+    private static ProductRepository.IdAndName product(long id, String name) {
+        return new ProductRepository.IdAndName() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+        };
+    }
+}
@@ -0,0 +1,55 @@
+package dev.andresbonelli.productcomparisonapi.service.catalog;
+
+import dev.andresbonelli.productcomparisonapi.domain.repository.ProductRepository;
+import dev.andresbonelli.productcomparisonapi.service.ProductChangedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ProductTextIndex reloads
+ */
+class ProductTextIndexTest {
+
+    @Test
+    void reset_searchDuringReloadSeesPreviousIndex() {
+        ProductRepository repository = mock(ProductRepository.class);
+        ProductTextIndex textIndex = new ProductTextIndex(repository, true, 1000);
+        List<Integer> hitsDuringReload = new ArrayList<>();
+        when(repository.streamIdsAndTexts())
+                .thenReturn(Stream.of(product(1L, "Noise cancelling headphones"), product(2L, "Gaming headphones")))
+                .thenReturn(Stream.of(product(1L, "Noise cancelling headphones"), product(2L, "Gaming headphones"),
+                                product(3L, "Wireless headphones"))
+                        .peek(product -> hitsDuringReload.add(textIndex.search("headphones", 0, 10).totalHits())));
+        textIndex.load();
+
+        textIndex.onProductChanged(ProductChangedEvent.reset());
+
+        assertEquals(List.of(2, 2, 2), hitsDuringReload);
+        assertEquals(3, textIndex.search("headphones", 0, 10).totalHits());
+    }
+
+    private static ProductRepository.IdAndText product(long id, String description) {
+        return new ProductRepository.IdAndText() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getDescription() {
+                return description;
+            }
+
+            @Override
+            public String getSpecifications() {
+                return "";
+            }
+        };
+    }
+}
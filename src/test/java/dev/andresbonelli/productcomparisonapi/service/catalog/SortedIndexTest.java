@@ -0,0 +1,84 @@
+package dev.andresbonelli.productcomparisonapi.service.catalog;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SortedIndex
+ */
+class SortedIndexTest {
+
+    @Test
+    void build_ordersByKeyThenRow() {
+        SortedIndex index = SortedIndex.build(new long[]{30, 10, 20, 10});
+
+        assertEquals(List.of(1, 3, 2, 0), rows(index));
+    }
+
+    @Test
+    void bounds_delimitInclusiveRange() {
+        SortedIndex index = SortedIndex.build(new long[]{30, 10, 20, 10});
+
+        assertEquals(0, index.lowerBound(10));
+        assertEquals(2, index.upperBound(10));
+        assertEquals(2, index.lowerBound(11));
+        assertEquals(4, index.upperBound(Long.MAX_VALUE));
+        assertEquals(0, index.lowerBound(Long.MIN_VALUE));
+    }
+
+    @Test
+    void ratingKey_preservesOrder() {
+        assertTrue(SortedIndex.ratingKey(0.0) < SortedIndex.ratingKey(0.1));
+        assertTrue(SortedIndex.ratingKey(4.5) < SortedIndex.ratingKey(4.51));
+        assertEquals(SortedIndex.ratingKey(0.0), SortedIndex.ratingKey(-0.0));
+    }
+
+    @Test
+    void incrementalUpdates_matchRebuild() {
+        Random random = new Random(42);
+        List<Long> column = new ArrayList<>();
+        SortedIndex index = SortedIndex.EMPTY;
+
+        for (int step = 0; step < 500; step++) {
+            int action = column.isEmpty() ? 0 : random.nextInt(3);
+            long key = random.nextInt(20);
+            if (action == 0) {
+                int row = random.nextInt(column.size() + 1);
+                column.add(row, key);
+                index = index.withRowInserted(row, key);
+            } else if (action == 1) {
+                int row = random.nextInt(column.size());
+                index = index.withRowRemoved(row, column.remove(row));
+            } else {
+                int row = random.nextInt(column.size());
+                index = index.withRowUpdated(row, column.set(row, key), key);
+            }
+            assertEquals(rows(SortedIndex.build(toArray(column))), rows(index), "step " + step);
+        }
+    }
+
+    @Test
+    void withRowRemoved_unknownRow_throws() {
+        SortedIndex index = SortedIndex.build(new long[]{10, 20});
+
+        assertThrows(IllegalStateException.class, () -> index.withRowRemoved(1, 10));
+    }
+
+    private static List<Integer> rows(SortedIndex index) {
+        List<Integer> rows = new ArrayList<>();
+        for (int i = 0; i < index.size(); i++) {
+            rows.add(index.rowAt(i));
+        }
+        return rows;
+    }
+
+    private static long[] toArray(List<Long> column) {
+        return column.stream().mapToLong(Long::longValue).toArray();
+    }
+}
@@ -0,0 +1,97 @@
+package dev.andresbonelli.productcomparisonapi.utils;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for Bm25Index
+ */
+class Bm25IndexTest {
+
+    private Bm25Index index;
+
+    @BeforeEach
+    void setUp() {
+        index = new Bm25Index();
+        index.put(1, "High-performance laptop with a 4K OLED touchscreen. Display: 15.6\" 4K OLED");
+        index.put(2, "Flagship smartphone. Display: 6.8\" Dynamic AMOLED 2X 120Hz, Battery: 5000mAh");
+        index.put(3, "Wireless headphones with noise cancellation. Battery: up to 30 hours");
+    }
+
+    @Test
+    void tokenize_splitsOnNonAlphanumerics() {
+        assertEquals(List.of("display", "6", "8", "120hz"), Bm25Index.tokenize("Display: 6.8\" 120Hz"));
+    }
+
+    @Test
+    void search_ranksByRelevance() {
+        Bm25Index.TopHits hits = index.search("OLED 120Hz", 10, 100);
+
+        assertArrayEquals(new long[]{1, 2}, hits.ids());
+        assertTrue(hits.scores()[0] >= hits.scores()[1]);
+        assertEquals(2, hits.totalHits());
+        assertTrue(hits.totalExact());
+    }
+
+    @Test
+    void search_unknownTerms_returnsNothing() {
+        Bm25Index.TopHits hits = index.search("tablet", 10, 100);
+
+        assertEquals(0, hits.ids().length);
+        assertEquals(0, hits.totalHits());
+    }
+
+    @Test
+    void putAndRemove_updateResults() {
+        index.put(3, "Headphones with OLED case");
+        index.remove(1);
+
+        assertArrayEquals(new long[]{3}, index.search("oled", 10, 100).ids());
+        assertEquals(0, index.search("wireless", 10, 100).totalHits());
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void search_countsTotalUpToLimit() {
+        Bm25Index.TopHits hits = index.search("battery display", 1, 2);
+
+        assertEquals(1, hits.ids().length);
+        assertEquals(2, hits.totalHits());
+        assertFalse(hits.totalExact());
+    }
+
+    @Test
+    void search_topK_matchesExhaustiveScoring() {
+        // Enough churn to trigger compaction, then compare pruned top-k with the full ranking
+        Random random = new Random(7);
+        String[] words = {"oled", "lcd", "120hz", "60hz", "battery", "wireless", "laptop", "phone", "usb", "ssd"};
+        Bm25Index large = new Bm25Index();
+        for (int round = 0; round < 3; round++) {
+            for (long id = 0; id < 2000; id++) {
+                StringBuilder text = new StringBuilder();
+                for (int w = random.nextInt(12) + 1; w > 0; w--) {
+                    text.append(words[random.nextInt(words.length)]).append(' ');
+                }
+                large.put(id, text.toString());
+            }
+        }
+
+        Bm25Index.TopHits all = large.search("oled 120hz usb", 2000, 2000);
+        Bm25Index.TopHits top = large.search("oled 120hz usb", 10, 2000);
+
+        float[] expected = Arrays.copyOf(all.scores(), 10);
+        assertArrayEquals(expected, top.scores(), 1e-5f);
+        assertTrue(IntStream.range(1, all.scores().length)
+                .allMatch(i -> all.scores()[i - 1] >= all.scores()[i]));
+        assertEquals(all.totalHits(), top.totalHits());
+        assertEquals(Arrays.stream(all.ids()).boxed().distinct().count(), all.ids().length);
+        assertEquals(2000, large.size());
+    }
+}
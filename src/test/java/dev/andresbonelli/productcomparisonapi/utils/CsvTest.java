@@ -0,0 +1,56 @@
+package dev.andresbonelli.productcomparisonapi.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for Csv
+ */
+class CsvTest {
+
+    @Test
+    void writeRecord_plainFields() throws IOException {
+        StringBuilder out = new StringBuilder();
+        Csv.writeRecord(out, List.of("1", "Sony WH-1000XM5", "399.99"));
+
+        assertEquals("1,Sony WH-1000XM5,399.99\r\n", out.toString());
+    }
+
+    @Test
+    void writeRecord_quotesSpecialFields() throws IOException {
+        StringBuilder out = new StringBuilder();
+        Csv.writeRecord(out, Arrays.asList("RAM: 16GB, Storage: 512GB", "Display: 15.6\" 4K", "two\nlines", null));
+
+        assertEquals("\"RAM: 16GB, Storage: 512GB\",\"Display: 15.6\"\" 4K\",\"two\nlines\",\r\n", out.toString());
+    }
+
+    @Test
+    void readRecord_parsesQuotedFields() throws IOException {
+        StringReader in = new StringReader("id,name\r\n1,\"RAM: 16GB, \"\"fast\"\"\nDDR5\"\n2,\n");
+
+        assertEquals(List.of("id", "name"), Csv.readRecord(in));
+        assertEquals(List.of("1", "RAM: 16GB, \"fast\"\nDDR5"), Csv.readRecord(in));
+        assertEquals(List.of("2", ""), Csv.readRecord(in));
+        assertNull(Csv.readRecord(in));
+    }
+
+    @Test
+    void readRecord_roundTripsWrittenRecords() throws IOException {
+        List<String> fields = List.of("Display: 15.6\" 4K", "a,b", "\"", "");
+        StringBuilder out = new StringBuilder();
+        Csv.writeRecord(out, fields);
+
+        assertEquals(fields, Csv.readRecord(new StringReader(out.toString())));
+    }
+
+    @Test
+    void readRecord_unterminatedQuote_throws() {
+        assertThrows(IllegalArgumentException.class, () -> Csv.readRecord(new StringReader("1,\"open")));
+    }
+}
@@ -0,0 +1,53 @@
+package dev.andresbonelli.productcomparisonapi.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PostingList
+ */
+class PostingListTest {
+
+    @Test
+    void cursor_readsBackAppendedPostings() {
+        PostingList list = new PostingList();
+        list.append(0, 1);
+        list.append(300, 2);
+        list.append(70000, 5);
+
+        PostingList.Cursor cursor = list.cursor();
+
+        assertEquals(0, cursor.next());
+        assertEquals(1, cursor.frequency());
+        assertEquals(300, cursor.next());
+        assertEquals(70000, cursor.next());
+        assertEquals(5, cursor.frequency());
+        assertEquals(PostingList.Cursor.NO_MORE_DOCS, cursor.next());
+        assertEquals(5, list.maxFrequency());
+    }
+
+    @Test
+    void advance_skipsBlocks() {
+        PostingList list = new PostingList();
+        for (int doc = 0; doc < 10 * PostingList.BLOCK_SIZE; doc++) {
+            list.append(doc * 3, doc % 7 + 1);
+        }
+
+        PostingList.Cursor cursor = list.cursor();
+
+        assertEquals(300, cursor.advance(299));
+        assertEquals(100 % 7 + 1, cursor.frequency());
+        assertEquals(300, cursor.advance(300));
+        assertEquals(1500, cursor.advance(1500));
+        assertEquals(PostingList.Cursor.NO_MORE_DOCS, cursor.advance(1_000_000));
+    }
+
+    @Test
+    void append_outOfOrder_throws() {
+        PostingList list = new PostingList();
+        list.append(5, 1);
+
+        assertThrows(IllegalArgumentException.class, () -> list.append(5, 1));
+    }
+}
@@ -0,0 +1,66 @@
+package dev.andresbonelli.productcomparisonapi.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SpecificationParser
+ */
+class SpecificationParserTest {
+
+    @Test
+    void parse_splitsAttributesAndConvertsUnits() {
+        List<SpecificationParser.Attribute> attributes = SpecificationParser.parse(
+                "Processor: Intel Core i7, RAM: 16GB DDR4, Storage: 1TB SSD, Connectivity: Bluetooth 5.2, LDAC");
+
+        assertEquals(List.of("processor", "ram", "storage", "connectivity"),
+                attributes.stream().map(SpecificationParser.Attribute::name).toList());
+        assertNull(attributes.get(0).measure());
+        assertEquals(new SpecificationParser.Measure(new BigDecimal("16.0000"), "gb"), attributes.get(1).measure());
+        assertEquals(new SpecificationParser.Measure(new BigDecimal("1024.0000"), "gb"), attributes.get(2).measure());
+        assertEquals("Bluetooth 5.2, LDAC", attributes.get(3).value());
+    }
+
+    @Test
+    void parse_gramsOnlyUnderWeightLabel() {
+        List<SpecificationParser.Attribute> attributes = SpecificationParser.parse(
+                "Connectivity: 5G, Network: Wi-Fi 6E and 5G, Net Weight: 1200g, Battery: 2 kg");
+
+        assertNull(attributes.get(0).measure());
+        assertNull(attributes.get(1).measure());
+        assertEquals(new SpecificationParser.Measure(new BigDecimal("1.2000"), "kg"), attributes.get(2).measure());
+        assertEquals(new SpecificationParser.Measure(new BigDecimal("2.0000"), "kg"), attributes.get(3).measure());
+        assertTrue(SpecificationParser.findMeasure("5G").isEmpty());
+    }
+
+    @Test
+    void parse_blankSpecifications_returnsEmpty() {
+        assertTrue(SpecificationParser.parse(null).isEmpty());
+        assertTrue(SpecificationParser.parse("Test specs").isEmpty());
+    }
+
+    @Test
+    void findMeasure_ignoresNumbersWithoutKnownUnit() {
+        assertEquals(new SpecificationParser.Measure(new BigDecimal("5000.0000"), "mah"),
+                SpecificationParser.findMeasure("Up to 30 hours, 5000mAh").orElseThrow());
+        assertTrue(SpecificationParser.findMeasure("6.8\" QHD+").isEmpty());
+    }
+
+    @Test
+    void parseValue_withoutUnit_keepsNumber() {
+        assertEquals(new SpecificationParser.Measure(new BigDecimal("4.0000"), null),
+                SpecificationParser.parseValue("4"));
+        assertEquals(new SpecificationParser.Measure(new BigDecimal("1.5000"), "kg"),
+                SpecificationParser.parseValue("1.5 kg"));
+    }
+
+    @Test
+    void parseValue_invalid_throws() {
+        assertThrows(IllegalArgumentException.class, () -> SpecificationParser.parseValue("lots"));
+        assertThrows(IllegalArgumentException.class, () -> SpecificationParser.parseValue("16 parsecs"));
+    }
+}
@@ -0,0 +1,42 @@
+package dev.andresbonelli.productcomparisonapi.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    @Test
+    void tryConsume_upToCapacity() {
+        TokenBucket bucket = new TokenBucket(5, Duration.ofHours(1));
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(bucket.tryConsume());
+        }
+
+        assertFalse(bucket.tryConsume());
+        assertEquals(0, bucket.getAvailableTokens());
+        assertTrue(bucket.getTimeToNextToken().toMinutes() > 0);
+    }
+
+    @Test
+    void tryConsume_refillsOverTime() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(10, Duration.ofMillis(100));
+        while (bucket.tryConsume()) {
+            // drain
+        }
+
+        Thread.sleep(50);
+
+        assertTrue(bucket.tryConsume());
+    }
+
+    @Test
+    void getAvailableTokens_neverExceedsCapacity() {
+        TokenBucket bucket = new TokenBucket(3, Duration.ofMillis(10));
+        assertEquals(3, bucket.getAvailableTokens());
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, Duration.ofMinutes(1)));
+    }
+}
@@ -0,0 +1,70 @@
+package dev.andresbonelli.productcomparisonapi.utils;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TrigramIndex
+ */
+class TrigramIndexTest {
+
+    private TrigramIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TrigramIndex();
+        index.put(3, "Sony WH-1000XM5");
+        index.put(1, "Dell XPS 15 Laptop");
+        index.put(2, "Samsung Galaxy S23 Ultra");
+    }
+
+    @Test
+    void search_matchesSubstringIgnoringCase() {
+        assertArrayEquals(new long[]{1}, index.search("LAPTOP"));
+        assertArrayEquals(new long[]{2}, index.search("galaxy s2"));
+        assertArrayEquals(new long[]{}, index.search("tablet"));
+    }
+
+    @Test
+    void search_ignoresAccents() {
+        index.put(4, "Cafetera Crème Bosch");
+
+        assertArrayEquals(new long[]{4}, index.search("creme"));
+        assertArrayEquals(new long[]{4}, index.search("CRÈME"));
+        assertArrayEquals(new long[]{4}, index.search("cre\u0300me"));
+    }
+
+    @Test
+    void search_verifiesCandidates() {
+        // "aaa" holds every trigram of "aaaa" without containing it
+        index.put(4, "aaa");
+
+        assertArrayEquals(new long[]{}, index.search("aaaa"));
+        assertArrayEquals(new long[]{4}, index.search("aaa"));
+    }
+
+    @Test
+    void search_shortQuery_returnsNull() {
+        assertNull(index.search("so"));
+    }
+
+    @Test
+    void put_replacesPreviousText() {
+        index.put(1, "Dell Monitor");
+
+        assertArrayEquals(new long[]{}, index.search("laptop"));
+        assertArrayEquals(new long[]{1}, index.search("monitor"));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void remove_dropsIdFromResults() {
+        index.remove(2);
+
+        assertArrayEquals(new long[]{}, index.search("galaxy"));
+        assertArrayEquals(new long[]{1}, index.search("dell"));
+        assertEquals(2, index.size());
+    }
+}